@@ -15,12 +15,20 @@
  ******************************************************************************/
 package org.omnaest.utils.table;
 
+import java.io.File;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.omnaest.utils.exception.RuntimeIOException;
+import org.omnaest.utils.table.components.TableParallelProcessor;
 import org.omnaest.utils.table.components.TableSerializer;
 import org.omnaest.utils.table.components.TableTranslator;
 import org.omnaest.utils.table.domain.Column;
 import org.omnaest.utils.table.domain.Row;
+import org.omnaest.utils.table.domain.RowCursor;
+import org.omnaest.utils.table.internal.MappedTableData;
 
 public interface ImmutableTable extends Iterable<Row>
 {
@@ -53,9 +61,71 @@ public interface ImmutableTable extends Iterable<Row>
 
     public int getRowSize();
 
+    /**
+     * Returns the defined {@link Column}s of the {@link Table}
+     * 
+     * @return
+     */
+    public List<Column> getColumns();
+
+    public Optional<Column> getColumn(String columnTitle);
+
+    /**
+     * Returns the effective {@link Column}s of the {@link Table}. This includes pseudo {@link Column}s that have been created due to a writing of a cell/value
+     * in a row, even if no column was defined for that cell/value.
+     * 
+     * @return
+     */
+    public List<Column> getEffectiveColumns();
+
+    public Row getRow(int rowIndex);
+
+    public List<Row> getRows();
+
+    public Stream<Row> stream();
+
+    /**
+     * Returns a new {@link RowCursor} positioned before the first row. Call {@link RowCursor#next()} to move it onto a row.
+     * 
+     * @see #forEachRow(Consumer)
+     * @return
+     */
+    public RowCursor cursor();
+
+    /**
+     * Moves a single {@link RowCursor} over all rows and passes it to the given {@link Consumer} for each row. In contrast to {@link #stream()} no object is
+     * created per row.
+     * 
+     * @param rowCursorConsumer
+     * @return this
+     */
+    public ImmutableTable forEachRow(Consumer<RowCursor> rowCursorConsumer);
+
     /**
      * @see #serialize()
      * @return
      */
     public TableTranslator as();
+
+    /**
+     * Returns a {@link TableParallelProcessor} which processes partitions of the rows concurrently on a {@link java.util.concurrent.ForkJoinPool}. The
+     * results keep the original row order.
+     * 
+     * @return
+     */
+    public TableParallelProcessor parallel();
+
+    /**
+     * Returns an {@link ImmutableTable} whose data is read from a memory mapped file, which has been written by
+     * {@link TableSerializer#asIndexedBinary()}. Opening the file does not read its content, so the startup costs are independent of the file size, and the
+     * operating system decides which parts of the file are kept in memory.
+     * 
+     * @throws RuntimeIOException
+     * @param file
+     * @return
+     */
+    public static ImmutableTable newMappedInstance(File file)
+    {
+        return MappedTableData.open(file);
+    }
 }
@@ -17,7 +17,6 @@ package org.omnaest.utils.table;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -26,9 +25,18 @@ import java.util.stream.Stream;
 
 import org.omnaest.utils.element.bi.BiElement;
 import org.omnaest.utils.table.components.TableDeserializer;
+import org.omnaest.utils.table.components.TableScanner;
 import org.omnaest.utils.table.domain.Column;
+import org.omnaest.utils.table.domain.ColumnType;
+import org.omnaest.utils.table.domain.MemoryStats;
 import org.omnaest.utils.table.domain.Row;
+import org.omnaest.utils.table.domain.RowCursor;
 import org.omnaest.utils.table.internal.ArrayTable;
+import org.omnaest.utils.table.internal.ColumnarTable;
+import org.omnaest.utils.table.internal.ConcurrentTable;
+import org.omnaest.utils.table.internal.OffHeapTable;
+import org.omnaest.utils.table.internal.SparseTable;
+import org.omnaest.utils.table.internal.TableScannerImpl;
 
 public interface Table extends ImmutableTable
 {
@@ -77,34 +85,28 @@ public interface Table extends ImmutableTable
 
     public Table addColumnTitle(String title);
 
-    public Table addRowTitle(String title);
-
-    public Table addRowTitles(List<String> titles);
-
-    public Table addRowTitles(String... titles);
-
-    /**
-     * Returns the defined {@link Column}s of the {@link Table}
-     * 
-     * @return
-     */
-    public List<Column> getColumns();
-
-    public Optional<Column> getColumn(String columnTitle);
-
     /**
-     * Returns the effective {@link Column}s of the {@link Table}. This includes pseudo {@link Column}s that have been created due to a writing of a cell/value
-     * in a row, even if no column was defined for that cell/value.
+     * Similar to {@link #addColumnTitle(String)} but declares the {@link ColumnType} of the values of the new {@link Column}.<br>
+     * <br>
+     * Only a {@link Table} created by {@link #newColumnarInstance()} stores the values of a typed {@link Column} in primitive form. Values of such a
+     * {@link Column} do not keep their original formatting and empty values are treated as null. A value which cannot be parsed into the declared
+     * {@link ColumnType} turns the {@link Column} back into a plain {@link ColumnType#STRING} {@link Column}.<br>
+     * <br>
+     * All other {@link Table}s ignore the {@link ColumnType}. They keep the values as they are and parse them on each call of e.g.
+     * {@link Row#getInt(String)}.
      * 
+     * @see Row#getInt(String)
+     * @param title
+     * @param type
      * @return
      */
-    public List<Column> getEffectiveColumns();
+    public Table addColumnTitle(String title, ColumnType type);
 
-    public Row getRow(int rowIndex);
+    public Table addRowTitle(String title);
 
-    public List<Row> getRows();
+    public Table addRowTitles(List<String> titles);
 
-    public Stream<Row> stream();
+    public Table addRowTitles(String... titles);
 
     public static interface TableDataLoader
     {
@@ -126,6 +128,69 @@ public interface Table extends ImmutableTable
      */
     public TableDeserializer deserialize();
 
+    @Override
+    public Table forEachRow(Consumer<RowCursor> rowCursorConsumer);
+
+    /**
+     * Reserves capacity for the given number of rows and columns, so that loading that many values does not resize the storage repeatedly. The capacity not
+     * used afterwards can be released by {@link #trimToSize()}.
+     * 
+     * @see #newInstance(int, int)
+     * @param expectedRows
+     * @param expectedColumns
+     * @return this
+     */
+    public Table ensureCapacity(int expectedRows, int expectedColumns);
+
+    /**
+     * Releases the capacity reserved beyond the current number of rows and columns, e.g. after loading a {@link Table}
+     * 
+     * @see #compact()
+     * @return this
+     */
+    public Table trimToSize();
+
+    /**
+     * Compresses the values held by this {@link Table} to reduce its memory footprint. Columnar {@link Table}s store repetitive {@link Column}s run length
+     * encoded and all other dictionary encoded {@link Column}s as bit packed codes, row oriented {@link Table}s let equal values of a {@link Column} share a
+     * single {@link String} instance.<br>
+     * <br>
+     * A compressed {@link Table} stays modifiable, but a modified {@link Column} is decompressed again. Compacting includes {@link #trimToSize()}.
+     * 
+     * @return this
+     */
+    public Table compact();
+
+    /**
+     * Returns an {@link ImmutableTable} of the current titles and values, which can be handed to any number of reader threads without synchronization.
+     * The snapshot keeps the kind of storage of this {@link Table}, e.g. the dictionary encoded and typed {@link Column}s of a columnar {@link Table}.<br>
+     * <br>
+     * The snapshot shares the storage of this {@link Table} as it is, including any unused capacity, and does not copy any value upfront. This
+     * {@link Table} stays modifiable and the readers of a snapshot keep their version, since the first write into a shared part afterwards copies only
+     * that part, e.g. a chunk of rows, a single row or a single {@link Column}. The snapshot is reused until the next modification.
+     * 
+     * @see #freeze()
+     * @return
+     */
+    public ImmutableTable snapshot();
+
+    /**
+     * Similar to {@link #snapshot()}, but trims the storage of this {@link Table} by {@link #trimToSize()} before and rejects any further modification of
+     * this {@link Table} with an {@link UnsupportedOperationException}. The storage itself is kept, so this {@link Table} still equals any unfrozen
+     * {@link Table} with the same titles and values.
+     * 
+     * @return
+     */
+    public ImmutableTable freeze();
+
+    /**
+     * Returns the estimated heap memory footprint of this {@link Table}, e.g. to limit a cache of {@link Table}s by bytes
+     * 
+     * @see #compact()
+     * @return
+     */
+    public MemoryStats memoryStats();
+
     public TableJoiner join();
 
     public static interface TableJoiner
@@ -161,5 +226,82 @@ public interface Table extends ImmutableTable
         return tableSupplier.get();
     }
 
-    public static Supplier<Table> tableSupplier = () -> new ArrayTable();
+    /**
+     * Returns a new {@link Table} instance with storage reserved for the given number of rows and columns
+     * 
+     * @see #ensureCapacity(int, int)
+     * @param expectedRows
+     * @param expectedColumns
+     * @return
+     */
+    public static Table newInstance(int expectedRows, int expectedColumns)
+    {
+        return newInstance().ensureCapacity(expectedRows, expectedColumns);
+    }
+
+    /**
+     * Returns a new {@link Table} instance which stores its values column wise. This favors the scanning of single {@link Column}s of large {@link Table}s
+     * over the access of whole {@link Row}s.
+     * 
+     * @see #newInstance()
+     * @return
+     */
+    public static Table newColumnarInstance()
+    {
+        return columnarTableSupplier.get();
+    }
+
+    /**
+     * Returns a new {@link CloseableTable} instance which keeps its values outside of the java heap. The memory is released by
+     * {@link CloseableTable#close()}.
+     * 
+     * @see #newInstance()
+     * @return
+     */
+    public static CloseableTable newOffHeapInstance()
+    {
+        return offHeapTableSupplier.get();
+    }
+
+    /**
+     * Returns a new {@link Table} instance which only stores its non null values. This suits wide {@link Table}s with many optional {@link Column}s where
+     * most of the cells are empty, since the memory usage scales with the number of non null cells.
+     * 
+     * @see #newInstance()
+     * @return
+     */
+    public static Table newSparseInstance()
+    {
+        return sparseTableSupplier.get();
+    }
+
+    /**
+     * Returns a new {@link Table} instance which can be filled and read by multiple threads at the same time. Rows added by {@link #addRow(String...)} or
+     * {@link #newRow()} get unique row indexes without any external synchronization and readers are never blocked.<br>
+     * <br>
+     * The column and row titles are not synchronized, so they should be added before the concurrent writers start.
+     * 
+     * @see #newInstance()
+     * @return
+     */
+    public static Table newConcurrentInstance()
+    {
+        return concurrentTableSupplier.get();
+    }
+
+    /**
+     * Returns a {@link TableScanner} which streams the {@link Row}s of a source without building a {@link Table}
+     * 
+     * @return
+     */
+    public static TableScanner scan()
+    {
+        return new TableScannerImpl();
+    }
+
+    public static Supplier<Table>          tableSupplier           = () -> new ArrayTable();
+    public static Supplier<Table>          columnarTableSupplier   = () -> new ColumnarTable();
+    public static Supplier<CloseableTable> offHeapTableSupplier    = () -> new OffHeapTable();
+    public static Supplier<Table>          sparseTableSupplier     = () -> new SparseTable();
+    public static Supplier<Table>          concurrentTableSupplier = () -> new ConcurrentTable();
 }
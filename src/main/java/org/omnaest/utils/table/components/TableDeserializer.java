@@ -18,14 +18,19 @@ package org.omnaest.utils.table.components;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.omnaest.utils.csv.CSVUtils.Parser;
 import org.omnaest.utils.csv.CSVUtils.ParserLoadedAndFormatDeclared;
 import org.omnaest.utils.exception.RuntimeIOException;
 import org.omnaest.utils.table.Table;
+import org.omnaest.utils.table.domain.Column;
+import org.omnaest.utils.table.domain.Row;
 
 public interface TableDeserializer
 {
@@ -44,6 +49,86 @@ public interface TableDeserializer
     public static interface CsvReaderOptions
     {
         public CsvReaderOptions withDelimiter(char delimiter);
+
+        /**
+         * Sets the {@link ForkJoinPool} used by {@link CsvReader#fromParallel(File)}. Default is the {@link ForkJoinPool#commonPool()}.
+         * 
+         * @param forkJoinPool
+         * @return
+         */
+        public CsvReaderOptions withForkJoinPool(ForkJoinPool forkJoinPool);
+
+        /**
+         * Reads only the {@link Column}s with the given titles, in the given order. The values of all other {@link Column}s are skipped while parsing and
+         * never become {@link String}s, unless the csv format uses an escape character or a comment marker.
+         * 
+         * @throws IllegalArgumentException
+         *             on reading, if a given title is not part of the header
+         * @param columnTitles
+         * @return
+         */
+        public CsvReaderOptions withColumns(String... columnTitles);
+
+        /**
+         * @see #withColumns(String...)
+         * @param columnTitles
+         * @return
+         */
+        public CsvReaderOptions withColumns(List<String> columnTitles);
+
+        /**
+         * Adds only the rows to the {@link Table}, which match the given filter. The filter is evaluated on the raw values of each record, before any
+         * {@link Row} is created within the {@link Table}. The given {@link Row} offers read access to the {@link Column}s selected by
+         * {@link #withColumns(String...)} and is only valid during the evaluation, it must neither be modified nor kept.<br>
+         * <br>
+         * The filter is applied before {@link #withSkip(long)}, {@link #withLimit(long)} and {@link #withSampling(int)}. For
+         * {@link CsvReader#fromParallel(File)} the filter is called concurrently for different rows.
+         * 
+         * @param filter
+         * @return
+         */
+        public CsvReaderOptions withFilter(Predicate<Row> filter);
+
+        /**
+         * Skips the given number of rows, which match the {@link #withFilter(Predicate)}
+         * 
+         * @throws IllegalArgumentException
+         *             for a negative number of rows
+         * @param numberOfRows
+         * @return
+         */
+        public CsvReaderOptions withSkip(long numberOfRows);
+
+        /**
+         * Adds at most the given number of rows, after {@link #withSkip(long)} has been applied. Reading stops as soon as the limit is reached.
+         * 
+         * @throws IllegalArgumentException
+         *             for a negative number of rows
+         * @param numberOfRows
+         * @return
+         */
+        public CsvReaderOptions withLimit(long numberOfRows);
+
+        /**
+         * Adds a uniformly random sample of the given size of all remaining rows, after {@link #withFilter(Predicate)}, {@link #withSkip(long)} and
+         * {@link #withLimit(long)} have been applied. The sample is drawn by reservoir sampling, so at most the given number of rows is held in memory, and
+         * keeps the rows in their original order.
+         * 
+         * @throws IllegalArgumentException
+         *             for a negative sample size
+         * @param sampleSize
+         * @return
+         */
+        public CsvReaderOptions withSampling(int sampleSize);
+
+        /**
+         * Similar to {@link #withSampling(int)}, but draws the sample with the given seed, so the same input results in the same sample
+         * 
+         * @param sampleSize
+         * @param seed
+         * @return
+         */
+        public CsvReaderOptions withSampling(int sampleSize, long seed);
     }
 
     public CsvReader asTabSeparated();
@@ -64,6 +149,21 @@ public interface TableDeserializer
          * @return
          */
         public Optional<Table> fromIfExists(File file);
+
+        /**
+         * Similar to {@link #from(File)}, but memory maps the {@link File} and parses chunks of it in parallel on the {@link ForkJoinPool} given by
+         * {@link CsvReaderOptions#withForkJoinPool(ForkJoinPool)}. The chunks end at line breaks outside of quoted values and the rows are added in the
+         * order of the {@link File}.<br>
+         * <br>
+         * The {@link File} has to be UTF-8 encoded. Formats with an escape character, a comment marker, trimmed values or a null string can not be split
+         * safely and are read sequentially. If a quote character appears within an unquoted value, the chunk boundaries behind it are not reliable, so the
+         * {@link File} is read sequentially from there on.
+         * 
+         * @throws RuntimeIOException
+         * @param file
+         * @return
+         */
+        public Table fromParallel(File file);
     }
 
     public Reader asFixColumnSizeFormatted();
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.components;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.omnaest.utils.table.ImmutableTable;
+import org.omnaest.utils.table.Table;
+import org.omnaest.utils.table.components.TableTranslator.SortOrder;
+import org.omnaest.utils.table.domain.Row;
+
+/**
+ * Parallel variants of the row based {@link TableTranslator} operations. The rows are partitioned into ranges of row indexes which are processed as
+ * {@link java.util.concurrent.ForkJoinTask}s, the partial results are merged in the original row order. So the results are equal to the ones of the
+ * sequential operations.<br>
+ * <br>
+ * The given functions are called concurrently and must not modify the {@link Table}.
+ * 
+ * @see ImmutableTable#parallel()
+ * @see TableTranslator
+ */
+public interface TableParallelProcessor
+{
+    /**
+     * Runs the operations on the given {@link ForkJoinPool} instead of the {@link ForkJoinPool#commonPool()}
+     * 
+     * @param forkJoinPool
+     * @return
+     */
+    public TableParallelProcessor withForkJoinPool(ForkJoinPool forkJoinPool);
+
+    /**
+     * Sets the maximum number of rows which are processed as one task. By default the rows are split into a few partitions per thread of the
+     * {@link ForkJoinPool}.
+     * 
+     * @param partitionSize
+     * @return
+     */
+    public TableParallelProcessor withPartitionSize(int partitionSize);
+
+    /**
+     * @see TableTranslator#filteredRows(Predicate)
+     * @param rowInclusionFilter
+     * @return
+     */
+    public Table filteredRows(Predicate<Row> rowInclusionFilter);
+
+    /**
+     * @see TableTranslator#sortedBy(Function, SortOrder)
+     * @param rowSortingFunction
+     * @param sortOrder
+     * @return
+     */
+    public <C extends Comparable<C>> Table sortedBy(Function<Row, C> rowSortingFunction, SortOrder sortOrder);
+
+    /**
+     * @see TableTranslator#group(Function, Function)
+     * @param keyMapper
+     * @param valueMapper
+     * @return
+     */
+    public <K, V> Map<K, List<V>> group(Function<Row, K> keyMapper, Function<Row, V> valueMapper);
+
+    /**
+     * @see TableTranslator#cellContentMappedTable(UnaryOperator)
+     * @param cellContentMapper
+     * @return
+     */
+    public Table cellContentMappedTable(UnaryOperator<String> cellContentMapper);
+
+    /**
+     * Maps every {@link Row} and returns the results in row order
+     * 
+     * @param rowMapper
+     * @return
+     */
+    public <R> List<R> mappedRows(Function<Row, R> rowMapper);
+}
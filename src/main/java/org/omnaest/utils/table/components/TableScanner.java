@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.components;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.omnaest.utils.exception.RuntimeIOException;
+import org.omnaest.utils.table.Table;
+import org.omnaest.utils.table.components.TableDeserializer.CsvReaderOptions;
+import org.omnaest.utils.table.domain.Row;
+
+/**
+ * Reads the rows of a source one by one without building a {@link Table}, so sources of any size can be processed in constant memory.<br>
+ * <br>
+ * The returned {@link Stream}s are lazy and have to be closed after use, e.g. by a try-with-resources block. All {@link Row}s of a {@link Stream} share
+ * a single buffer, so a {@link Row} is only valid until the next {@link Row} is read. Accessing it afterwards throws an {@link IllegalStateException}.
+ * Operations which hold back {@link Row}s, like {@link Stream#sorted()} or collecting the {@link Row}s themselves, require to map the {@link Row}s first,
+ * e.g. by {@link Row#asList()}, and the {@link Stream}s must not be processed in parallel.
+ * 
+ * @see Table#scan()
+ */
+public interface TableScanner
+{
+    /**
+     * Scans the rows of a csv {@link File}. The first record holds the column titles.
+     * 
+     * @throws RuntimeIOException
+     * @param file
+     * @return
+     */
+    public Stream<Row> csv(File file);
+
+    /**
+     * Similar to {@link #csv(File)} using the given {@link CsvReaderOptions}
+     * 
+     * @param file
+     * @param options
+     * @return
+     */
+    public Stream<Row> csv(File file, Consumer<CsvReaderOptions> options);
+
+    /**
+     * Similar to {@link #csv(File)}. Closing the {@link Stream} closes the {@link InputStream}.
+     * 
+     * @param inputStream
+     * @return
+     */
+    public Stream<Row> csv(InputStream inputStream);
+
+    /**
+     * Similar to {@link #csv(InputStream)} using the given {@link CsvReaderOptions}
+     * 
+     * @param inputStream
+     * @param options
+     * @return
+     */
+    public Stream<Row> csv(InputStream inputStream, Consumer<CsvReaderOptions> options);
+}
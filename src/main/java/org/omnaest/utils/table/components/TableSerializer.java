@@ -16,9 +16,14 @@
 package org.omnaest.utils.table.components;
 
 import java.io.File;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import org.omnaest.utils.exception.RuntimeIOException;
+import org.omnaest.utils.table.ImmutableTable;
 import org.omnaest.utils.table.Table;
 
 public interface TableSerializer
@@ -42,9 +47,64 @@ public interface TableSerializer
      */
     public SerializationResultWriter asFixColumnSizeFormatted();
 
+    /**
+     * Writes the serialized {@link Table}. The {@link #writeInto(Writer)} methods stream the rows into the target, whereas {@link #get()} creates the
+     * whole content as a single {@link String} and should only be used for small {@link Table}s.
+     */
     public static interface SerializationResultWriter extends Supplier<String>
     {
+        /**
+         * Writes the serialized {@link Table} as UTF-8 into the given {@link File}, which is replaced if it exists already
+         * 
+         * @throws RuntimeIOException
+         * @param file
+         * @return
+         */
         public SerializationResultWriter writeInto(File file);
+
+        /**
+         * @see #writeInto(File)
+         * @throws RuntimeIOException
+         * @param path
+         * @return
+         */
+        public SerializationResultWriter writeInto(Path path);
+
+        /**
+         * Writes the serialized {@link Table} into the given {@link Writer}. The {@link Writer} is flushed, but not closed.
+         * 
+         * @throws RuntimeIOException
+         * @param writer
+         * @return
+         */
+        public SerializationResultWriter writeInto(Writer writer);
+
+        /**
+         * Writes the serialized {@link Table} as UTF-8 into the given {@link OutputStream}. The {@link OutputStream} is flushed, but not closed.
+         * 
+         * @throws RuntimeIOException
+         * @param outputStream
+         * @return
+         */
+        public SerializationResultWriter writeInto(OutputStream outputStream);
+    }
+
+    /**
+     * Returns a {@link BinarySerializationResultWriter} which writes the {@link Table} in an indexed binary format. Such a file can be opened via
+     * {@link ImmutableTable#newMappedInstance(File)} without reading its content upfront.
+     * 
+     * @return
+     */
+    public BinarySerializationResultWriter asIndexedBinary();
+
+    public static interface BinarySerializationResultWriter
+    {
+        /**
+         * @throws RuntimeIOException
+         * @param file
+         * @return
+         */
+        public BinarySerializationResultWriter writeInto(File file);
     }
 
 }
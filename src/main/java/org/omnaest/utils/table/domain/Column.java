@@ -16,6 +16,7 @@
 package org.omnaest.utils.table.domain;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface Column
 {
@@ -25,6 +26,38 @@ public interface Column
 
     public List<String> getValues();
 
+    /**
+     * Returns a new array with the values of all rows of this {@link Column}. In contrast to {@link #getCells()} the values are read directly from the
+     * storage without creating any {@link Row} or {@link Cell}, if the implementation supports it. By default the values are taken from
+     * {@link #getValues()}.
+     * 
+     * @return
+     */
+    public default String[] valuesArray()
+    {
+        return this.getValues()
+                   .toArray(new String[0]);
+    }
+
+    /**
+     * Returns a {@link Stream} of the values of all rows of this {@link Column}
+     * 
+     * @see #valuesArray()
+     * @return
+     */
+    public default Stream<String> stream()
+    {
+        return this.getValues()
+                   .stream();
+    }
+
+    /**
+     * Returns true, if any row of this {@link Column} holds the given value. The storage is scanned directly, dictionary encoded {@link Column}s are
+     * answered by their dictionary for values which never occurred.
+     * 
+     * @param value
+     * @return
+     */
     public boolean containsValue(String value);
 
     public int getColumnIndex();
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.domain;
+
+import org.omnaest.utils.table.Table;
+
+/**
+ * Type of the values of a {@link Column}.<br>
+ * <br>
+ * A {@link Table} implementation can use the declared type to store the values of a {@link Column} in primitive form, so they can be read via e.g.
+ * {@link Row#getInt(int)} without parsing them again.
+ * 
+ * @see Table#addColumnTitle(String, ColumnType)
+ */
+public enum ColumnType
+{
+    STRING, INT, LONG, DOUBLE, BOOLEAN
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.domain;
+
+import java.util.List;
+
+import org.omnaest.utils.table.Table;
+
+/**
+ * Estimated heap memory footprint of a {@link Table}.<br>
+ * <br>
+ * The byte values are estimations based on the usual object layout of a 64 bit JVM with compressed references. {@link String} instances shared by multiple
+ * cells are counted only once.
+ * 
+ * @see Table#memoryStats()
+ */
+public interface MemoryStats
+{
+    /**
+     * Returns the estimated number of heap bytes retained by the {@link Table} including its value storage, the {@link String} values and the title indexes
+     * 
+     * @return
+     */
+    public long getRetainedBytes();
+
+    /**
+     * Returns the number of cell slots allocated by the storage of the {@link Table}. This includes the slack capacity reserved for future values.
+     * 
+     * @return
+     */
+    public long getAllocatedCapacity();
+
+    /**
+     * Returns the number of allocated cell slots within the current row and column size
+     * 
+     * @return
+     */
+    public long getUsedCapacity();
+
+    /**
+     * Returns the {@link ColumnMemoryStats} of all effective {@link Column}s
+     * 
+     * @return
+     */
+    public List<ColumnMemoryStats> getColumns();
+
+    public static interface ColumnMemoryStats
+    {
+        public int getColumnIndex();
+
+        public String getColumnTitle();
+
+        /**
+         * Returns the estimated number of heap bytes retained by the values of the {@link Column}
+         * 
+         * @return
+         */
+        public long getRetainedBytes();
+    }
+}
@@ -20,6 +20,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
 public interface Row extends Iterable<String>
 {
     public List<String> getValues();
@@ -40,6 +43,97 @@ public interface Row extends Iterable<String>
 
     public Optional<ValueAccessor> getOptionalValueAs(int columnIndex);
 
+    /**
+     * Returns the value of the given column as int. In contrast to {@link #getOptionalValueAs(int)} this does not allocate any object and does not parse the
+     * value again, if the {@link Column} has been declared with {@link ColumnType#INT}. Returns 0 for a null value or a non existing cell.<br>
+     * <br>
+     * By default the value is parsed from {@link #getOptionalValue(int)}, values which cannot be parsed are returned as 0.
+     * 
+     * @param columnIndex
+     * @return
+     */
+    public default int getInt(int columnIndex)
+    {
+        return NumberUtils.toInt(this.getOptionalValue(columnIndex)
+                                     .orElse(null));
+    }
+
+    /**
+     * Similar to {@link #getInt(int)}
+     * 
+     * @throws IllegalArgumentException
+     *             for an unknown column title
+     * @param columnTitle
+     * @return
+     */
+    public default int getInt(String columnTitle)
+    {
+        return NumberUtils.toInt(this.getValue(columnTitle));
+    }
+
+    /**
+     * @see #getInt(int)
+     * @param columnIndex
+     * @return
+     */
+    public default long getLong(int columnIndex)
+    {
+        return NumberUtils.toLong(this.getOptionalValue(columnIndex)
+                                      .orElse(null));
+    }
+
+    /**
+     * @see #getInt(String)
+     * @param columnTitle
+     * @return
+     */
+    public default long getLong(String columnTitle)
+    {
+        return NumberUtils.toLong(this.getValue(columnTitle));
+    }
+
+    /**
+     * @see #getInt(int)
+     * @param columnIndex
+     * @return
+     */
+    public default double getDouble(int columnIndex)
+    {
+        return NumberUtils.toDouble(this.getOptionalValue(columnIndex)
+                                        .orElse(null));
+    }
+
+    /**
+     * @see #getInt(String)
+     * @param columnTitle
+     * @return
+     */
+    public default double getDouble(String columnTitle)
+    {
+        return NumberUtils.toDouble(this.getValue(columnTitle));
+    }
+
+    /**
+     * @see #getInt(int)
+     * @param columnIndex
+     * @return
+     */
+    public default boolean getBoolean(int columnIndex)
+    {
+        return BooleanUtils.toBoolean(this.getOptionalValue(columnIndex)
+                                          .orElse(null));
+    }
+
+    /**
+     * @see #getInt(String)
+     * @param columnTitle
+     * @return
+     */
+    public default boolean getBoolean(String columnTitle)
+    {
+        return BooleanUtils.toBoolean(this.getValue(columnTitle));
+    }
+
     public Map<String, String> asMap();
 
     public Row addValue(String value);
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.domain;
+
+import java.util.function.Consumer;
+
+import org.omnaest.utils.table.ImmutableTable;
+
+/**
+ * Single mutable view which is moved over the rows of a {@link ImmutableTable}. In contrast to {@link Row} no object is created per row or per cell, so a
+ * {@link RowCursor} suits tight loops over large tables.<br>
+ * <br>
+ * A {@link RowCursor} always reflects the row it currently points to, so it must not be kept beyond the current iteration step. Use {@link #asRow()} to
+ * keep a row.
+ * 
+ * @see ImmutableTable#cursor()
+ * @see ImmutableTable#forEachRow(Consumer)
+ */
+public interface RowCursor
+{
+    /**
+     * Moves the cursor to the next row. Returns false, if there is no further row.
+     * 
+     * @return
+     */
+    public boolean next();
+
+    public int getRowIndex();
+
+    /**
+     * Returns the number of columns
+     * 
+     * @return
+     */
+    public int size();
+
+    /**
+     * Returns the value of the given column of the current row or null, if the column does not exist
+     * 
+     * @param columnIndex
+     * @return
+     */
+    public String getValue(int columnIndex);
+
+    /**
+     * @throws IllegalArgumentException
+     *             for an unknown column title
+     * @param columnTitle
+     * @return
+     */
+    public String getValue(String columnTitle);
+
+    public boolean isNull(int columnIndex);
+
+    /**
+     * @see Row#getInt(int)
+     * @param columnIndex
+     * @return
+     */
+    public int getInt(int columnIndex);
+
+    /**
+     * @see Row#getInt(String)
+     * @param columnTitle
+     * @return
+     */
+    public int getInt(String columnTitle);
+
+    /**
+     * @see Row#getLong(int)
+     * @param columnIndex
+     * @return
+     */
+    public long getLong(int columnIndex);
+
+    /**
+     * @see Row#getLong(String)
+     * @param columnTitle
+     * @return
+     */
+    public long getLong(String columnTitle);
+
+    /**
+     * @see Row#getDouble(int)
+     * @param columnIndex
+     * @return
+     */
+    public double getDouble(int columnIndex);
+
+    /**
+     * @see Row#getDouble(String)
+     * @param columnTitle
+     * @return
+     */
+    public double getDouble(String columnTitle);
+
+    /**
+     * @see Row#getBoolean(int)
+     * @param columnIndex
+     * @return
+     */
+    public boolean getBoolean(int columnIndex);
+
+    /**
+     * @see Row#getBoolean(String)
+     * @param columnTitle
+     * @return
+     */
+    public boolean getBoolean(String columnTitle);
+
+    /**
+     * Returns a {@link Row} of the current row index, which stays valid after the cursor has moved on
+     * 
+     * @return
+     */
+    public Row asRow();
+}
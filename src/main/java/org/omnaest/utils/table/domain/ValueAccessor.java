@@ -4,6 +4,17 @@ public interface ValueAccessor
 {
     public int intValue();
 
+    /**
+     * Returns the value as long. By default this widens {@link #intValue()}, so values beyond the int range are only supported by implementations
+     * overriding this method.
+     * 
+     * @return
+     */
+    public default long longValue()
+    {
+        return this.intValue();
+    }
+
     public double doubleValue();
 
     public boolean booleanValue();
@@ -22,42 +22,104 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
 import org.omnaest.utils.JsonUtils;
 import org.omnaest.utils.ListUtils;
 import org.omnaest.utils.element.bi.BiElement;
 import org.omnaest.utils.element.bi.UnaryBiElement;
+import org.omnaest.utils.table.ImmutableTable;
 import org.omnaest.utils.table.Table;
 import org.omnaest.utils.table.components.TableDeserializer;
+import org.omnaest.utils.table.components.TableParallelProcessor;
 import org.omnaest.utils.table.components.TableSerializer;
 import org.omnaest.utils.table.components.TableTranslator;
 import org.omnaest.utils.table.domain.Cell;
 import org.omnaest.utils.table.domain.Column;
+import org.omnaest.utils.table.domain.ColumnType;
+import org.omnaest.utils.table.domain.MemoryStats;
 import org.omnaest.utils.table.domain.Row;
+import org.omnaest.utils.table.domain.RowCursor;
 import org.omnaest.utils.table.domain.ValueAccessor;
 
 import lombok.RequiredArgsConstructor;
 
 public class ArrayTable implements Table
 {
-    private KeyIndex  columnIndex = new KeyIndex();
-    private KeyIndex  rowIndex    = new KeyIndex();
-    private TableData data        = new TableData();
+    private static final int NULL_WRITE_STRIPES = 64;
+
+    private KeyIndex               columnIndex   = new KeyIndex();
+    private KeyIndex               rowIndex      = new KeyIndex();
+    private TableStorage           data;
+    private volatile Column[]      columnHandles = new Column[0];
+    private volatile ReadOnlyTable snapshot;
+    private volatile boolean       frozen;
+    private int                    hashCode;
+    private AtomicIntegerArray     nullWrites    = new AtomicIntegerArray(NULL_WRITE_STRIPES);
+
+    public ArrayTable()
+    {
+        this(new TableData());
+    }
+
+    protected ArrayTable(TableStorage data)
+    {
+        super();
+        this.data = data;
+    }
+
+    private ArrayTable(KeyIndex columnIndex, KeyIndex rowIndex, TableStorage data)
+    {
+        this(data);
+        this.columnIndex = columnIndex;
+        this.rowIndex = rowIndex;
+    }
+
+    /**
+     * Has to be called before any modification of the titles or values. Drops the cached snapshot, since it does not reflect the modification.
+     * 
+     * @throws UnsupportedOperationException
+     *             if the table has been frozen
+     */
+    private void beforeWrite()
+    {
+        if (this.frozen)
+        {
+            throw new UnsupportedOperationException("Table is frozen");
+        }
+        this.snapshot = null;
+    }
+
+    private KeyIndex getWritableColumnIndex()
+    {
+        this.beforeWrite();
+        return this.columnIndex;
+    }
 
     @Override
     public Table addColumnTitle(String title)
     {
-        this.columnIndex.addKey(title);
+        this.getWritableColumnIndex()
+            .addKey(title);
+        return this;
+    }
+
+    @Override
+    public Table addColumnTitle(String title, ColumnType type)
+    {
+        this.addColumnTitle(title);
+        this.data.setColumnType(this.columnIndex.size() - 1, type);
         return this;
     }
 
@@ -77,7 +139,8 @@ public class ArrayTable implements Table
     {
         if (titles != null)
         {
-            titles.forEach(this::addColumnTitle);
+            this.getWritableColumnIndex()
+                .addKeys(titles);
         }
         return this;
     }
@@ -87,7 +150,8 @@ public class ArrayTable implements Table
     {
         if (titles != null)
         {
-            titles.forEach(this::addRowTitle);
+            this.beforeWrite();
+            this.rowIndex.addKeys(titles);
         }
         return this;
     }
@@ -101,6 +165,7 @@ public class ArrayTable implements Table
     @Override
     public Table addRowTitle(String title)
     {
+        this.beforeWrite();
         this.rowIndex.addKey(title);
         return this;
     }
@@ -178,10 +243,8 @@ public class ArrayTable implements Table
     @Override
     public Row newRow()
     {
-        int rowIndex = this.getRowSize();
-        Row result = new RowImpl(rowIndex);
-        this.data.setRowSize(rowIndex + 1);
-        return result;
+        this.beforeWrite();
+        return new RowImpl(this.data.appendRow());
     }
 
     @Override
@@ -200,8 +263,30 @@ public class ArrayTable implements Table
     @Override
     public Stream<Row> stream()
     {
-        return IntStream.range(0, this.getRowSize())
-                        .mapToObj(rowIndex -> this.getRow(rowIndex));
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    @Override
+    public Spliterator<Row> spliterator()
+    {
+        return new RowSpliterator(this::getRow, this::getRowSize);
+    }
+
+    @Override
+    public RowCursor cursor()
+    {
+        return new RowCursorImpl();
+    }
+
+    @Override
+    public Table forEachRow(Consumer<RowCursor> rowCursorConsumer)
+    {
+        RowCursor cursor = this.cursor();
+        while (cursor.next())
+        {
+            rowCursorConsumer.accept(cursor);
+        }
+        return this;
     }
 
     @Override
@@ -212,8 +297,35 @@ public class ArrayTable implements Table
 
     public Column getColumn(int index)
     {
-        ArrayTable table = ArrayTable.this;
-        return new ColumnImpl(index, table);
+        if (index < 0 || index >= Math.max(this.columnIndex.size(), this.data.getColumnSize()))
+        {
+            return new ColumnImpl(index, this);
+        }
+
+        Column[] columnHandles = this.columnHandles;
+        if (index >= columnHandles.length)
+        {
+            // the handles are stateless, so concurrently extended arrays are interchangeable
+            int previousLength = columnHandles.length;
+            columnHandles = Arrays.copyOf(columnHandles, Math.max(index + 1, previousLength + (previousLength >> 1)));
+            for (int ii = previousLength; ii < columnHandles.length; ii++)
+            {
+                columnHandles[ii] = new ColumnImpl(ii, this);
+            }
+            this.columnHandles = columnHandles;
+        }
+        return columnHandles[index];
+    }
+
+    /**
+     * Returns the {@link DictionaryEncodedColumn} of the given column index, if the underlying storage holds that column dictionary encoded
+     * 
+     * @param columnIndex
+     * @return
+     */
+    Optional<DictionaryEncodedColumn> getDictionaryEncodedColumn(int columnIndex)
+    {
+        return this.data.getDictionaryEncodedColumn(columnIndex);
     }
 
     @Override
@@ -248,16 +360,14 @@ public class ArrayTable implements Table
     @Override
     public Optional<Column> getColumn(String columnTitle)
     {
-        return this.getColumns()
-                   .stream()
-                   .filter(column -> StringUtils.equals(columnTitle, column.getTitle()))
-                   .findFirst();
+        int index = this.columnIndex.firstIndexOf(columnTitle);
+        return index >= 0 ? Optional.of(this.getColumn(index)) : Optional.empty();
     }
 
     @Override
     public List<Column> getEffectiveColumns()
     {
-        return IntStream.range(0, this.columnIndex.getEffectiveSize())
+        return IntStream.range(0, Math.max(this.columnIndex.getEffectiveSize(), this.data.getColumnSize()))
                         .mapToObj(this::getColumn)
                         .collect(Collectors.toList());
     }
@@ -277,8 +387,25 @@ public class ArrayTable implements Table
     @Override
     public Iterator<Row> iterator()
     {
-        return this.getRows()
-                   .iterator();
+        return new Iterator<Row>() {
+            private int rowIndex = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return this.rowIndex < ArrayTable.this.getRowSize();
+            }
+
+            @Override
+            public Row next()
+            {
+                if (!this.hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                return ArrayTable.this.getRow(this.rowIndex++);
+            }
+        };
     }
 
     @Override
@@ -295,6 +422,12 @@ public class ArrayTable implements Table
         return new TableTranslatorImpl(this);
     }
 
+    @Override
+    public TableParallelProcessor parallel()
+    {
+        return new TableParallelProcessorImpl(this);
+    }
+
     @Override
     public TableDataLoader load()
     {
@@ -327,8 +460,114 @@ public class ArrayTable implements Table
         return new TableDeserializerImpl(this);
     }
 
+    @Override
+    public Table ensureCapacity(int expectedRows, int expectedColumns)
+    {
+        if (!this.frozen)
+        {
+            this.data.ensureCapacity(expectedRows, expectedColumns);
+        }
+        return this;
+    }
+
+    @Override
+    public Table trimToSize()
+    {
+        if (!this.frozen)
+        {
+            this.data.trimToSize();
+        }
+        return this;
+    }
+
+    @Override
+    public Table compact()
+    {
+        if (!this.frozen)
+        {
+            this.data.compact();
+        }
+        return this;
+    }
+
+    @Override
+    public ImmutableTable snapshot()
+    {
+        return this.getOrCreateSnapshot();
+    }
+
+    /**
+     * Returns the cached snapshot or creates a new one. The {@link TableStorage#snapshot()} keeps the kind of storage and shares its data copy on write, so
+     * only the parts written afterwards are copied. The column handles of the snapshot are created upfront and its hash code is computed once on first use.
+     * 
+     * @return
+     */
+    private ReadOnlyTable getOrCreateSnapshot()
+    {
+        ReadOnlyTable result = this.snapshot;
+        if (result == null)
+        {
+            ArrayTable table = new ArrayTable(this.columnIndex.copy(), this.rowIndex.copy(), this.data.snapshot());
+            table.frozen = true;
+            int numberOfColumns = Math.max(table.columnIndex.size(), table.data.getColumnSize());
+            if (numberOfColumns > 0)
+            {
+                table.getColumn(numberOfColumns - 1);
+            }
+            result = new ReadOnlyTable(table);
+            this.snapshot = result;
+        }
+        return result;
+    }
+
+    /**
+     * Releases the unused capacity and rejects any further modification. The storage is kept, so the frozen snapshot shares all of its data.
+     */
+    @Override
+    public ImmutableTable freeze()
+    {
+        if (!this.frozen)
+        {
+            this.data.trimToSize();
+            this.frozen = true;
+        }
+        return this.getOrCreateSnapshot();
+    }
+
+    @Override
+    public MemoryStats memoryStats()
+    {
+        MemoryUsage memoryUsage = new MemoryUsage().addOverhead(MemoryUsage.sizeOfObject(4 * MemoryUsage.REFERENCE))
+                                                   .addOverhead(MemoryUsage.sizeOfArray(NULL_WRITE_STRIPES, Integer.BYTES))
+                                                   .addOverhead(MemoryUsage.sizeOfArray(this.columnHandles.length, MemoryUsage.REFERENCE))
+                                                   .addOverhead(this.columnHandles.length * MemoryUsage.sizeOfObject(MemoryUsage.REFERENCE + Integer.BYTES));
+        this.columnIndex.accumulateMemoryUsage(memoryUsage);
+        this.rowIndex.accumulateMemoryUsage(memoryUsage);
+        this.data.accumulateMemoryUsage(memoryUsage);
+        return memoryUsage.toMemoryStats(this.getEffectiveColumnTitles());
+    }
+
+    /**
+     * The hash code of a frozen table is computed once, a concurrent first use may compute the same value twice
+     */
     @Override
     public int hashCode()
+    {
+        if (!this.frozen)
+        {
+            return this.computeHashCode();
+        }
+
+        int result = this.hashCode;
+        if (result == 0)
+        {
+            result = this.computeHashCode();
+            this.hashCode = result;
+        }
+        return result;
+    }
+
+    private int computeHashCode()
     {
         final int prime = 31;
         int result = 1;
@@ -345,11 +584,7 @@ public class ArrayTable implements Table
         {
             return true;
         }
-        if (obj == null)
-        {
-            return false;
-        }
-        if (this.getClass() != obj.getClass())
+        if (!(obj instanceof ArrayTable))
         {
             return false;
         }
@@ -491,30 +726,42 @@ public class ArrayTable implements Table
         @Override
         public List<Cell> getCells()
         {
-            List<Cell> result = new ArrayList<>();
-
-            for (Row row : this.table.getRows())
+            int rowSize = this.table.getRowSize();
+            List<Cell> result = new ArrayList<>(rowSize);
+            for (int rowIndex = 0; rowIndex < rowSize; rowIndex++)
             {
-                result.add(row.getCell(this.index));
+                result.add(this.table.getRow(rowIndex)
+                                     .getCell(this.index));
             }
-
             return result;
         }
 
         @Override
         public List<String> getValues()
         {
-            return this.getCells()
-                       .stream()
-                       .map(Cell::getValue)
-                       .collect(Collectors.toList());
+            return Arrays.asList(this.valuesArray());
+        }
+
+        @Override
+        public String[] valuesArray()
+        {
+            return this.table.data.getColumn(this.index);
+        }
+
+        @Override
+        public Stream<String> stream()
+        {
+            return Arrays.stream(this.valuesArray());
         }
 
         @Override
         public boolean containsValue(String value)
         {
-            return this.getValues()
-                       .contains(value);
+            if (this.index >= this.table.data.getColumnSize())
+            {
+                return value == null && this.table.data.getRowSize() > 0;
+            }
+            return this.table.data.containsValue(this.index, value);
         }
 
         @Override
@@ -537,14 +784,150 @@ public class ArrayTable implements Table
 
     }
 
+    private class RowCursorImpl implements RowCursor
+    {
+        private int rowIndex = -1;
+
+        @Override
+        public boolean next()
+        {
+            if (this.rowIndex + 1 < ArrayTable.this.data.getRowSize())
+            {
+                this.rowIndex++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int getRowIndex()
+        {
+            return this.rowIndex;
+        }
+
+        @Override
+        public int size()
+        {
+            return ArrayTable.this.data.getColumnSize();
+        }
+
+        @Override
+        public String getValue(int columnIndex)
+        {
+            return this.hasColumn(columnIndex) ? ArrayTable.this.data.get(this.rowIndex, columnIndex) : null;
+        }
+
+        @Override
+        public String getValue(String columnTitle)
+        {
+            return this.getValue(this.resolveColumnIndex(columnTitle));
+        }
+
+        @Override
+        public boolean isNull(int columnIndex)
+        {
+            return !this.hasColumn(columnIndex) || ArrayTable.this.data.isNull(this.rowIndex, columnIndex);
+        }
+
+        @Override
+        public int getInt(int columnIndex)
+        {
+            return this.hasColumn(columnIndex) ? ArrayTable.this.data.getInt(this.rowIndex, columnIndex) : 0;
+        }
+
+        @Override
+        public int getInt(String columnTitle)
+        {
+            return this.getInt(this.resolveColumnIndex(columnTitle));
+        }
+
+        @Override
+        public long getLong(int columnIndex)
+        {
+            return this.hasColumn(columnIndex) ? ArrayTable.this.data.getLong(this.rowIndex, columnIndex) : 0L;
+        }
+
+        @Override
+        public long getLong(String columnTitle)
+        {
+            return this.getLong(this.resolveColumnIndex(columnTitle));
+        }
+
+        @Override
+        public double getDouble(int columnIndex)
+        {
+            return this.hasColumn(columnIndex) ? ArrayTable.this.data.getDouble(this.rowIndex, columnIndex) : 0.0;
+        }
+
+        @Override
+        public double getDouble(String columnTitle)
+        {
+            return this.getDouble(this.resolveColumnIndex(columnTitle));
+        }
+
+        @Override
+        public boolean getBoolean(int columnIndex)
+        {
+            return this.hasColumn(columnIndex) && ArrayTable.this.data.getBoolean(this.rowIndex, columnIndex);
+        }
+
+        @Override
+        public boolean getBoolean(String columnTitle)
+        {
+            return this.getBoolean(this.resolveColumnIndex(columnTitle));
+        }
+
+        @Override
+        public Row asRow()
+        {
+            return ArrayTable.this.getRow(this.rowIndex);
+        }
+
+        private boolean hasColumn(int columnIndex)
+        {
+            return this.rowIndex >= 0 && columnIndex >= 0 && columnIndex < this.size();
+        }
+
+        private int resolveColumnIndex(String columnTitle)
+        {
+            int columnIndex = ArrayTable.this.columnIndex.indexOf(columnTitle);
+            if (columnIndex < 0)
+            {
+                throw new IllegalArgumentException("Unknown column title: " + columnTitle);
+            }
+            return columnIndex;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "RowCursor [rowIndex=" + this.rowIndex + "]";
+        }
+    }
+
     public class RowImpl implements Row
     {
         private int rowIndex;
 
+        /**
+         * All cells before this column index are known to be non null, so {@link #addValue(String)} continues its search for the next free cell from here.
+         * Only a null written into a cell of this row can invalidate this, so the position is only valid as long as the null write counter of the stripe of
+         * this row is unchanged. Null writes through this {@link Row} keep the position valid, null writes through any other {@link Row} instance of the
+         * same row or of another row of the same stripe invalidate it.
+         */
+        private int appendPosition = 0;
+        private int appendPositionNullWrites;
+
         public RowImpl(int rowIndex)
         {
             super();
             this.rowIndex = rowIndex;
+            this.appendPositionNullWrites = ArrayTable.this.nullWrites.get(this.getNullWriteStripe());
+        }
+
+        private int getNullWriteStripe()
+        {
+            return this.rowIndex & (NULL_WRITE_STRIPES - 1);
         }
 
         @Override
@@ -631,26 +1014,35 @@ public class ArrayTable implements Table
                 @Override
                 public Optional<ValueAccessor> getOptionalValueAs()
                 {
-                    return this.getOptionalValue()
-                               .map(value -> new ValueAccessor() {
-                                   @Override
-                                   public int intValue()
-                                   {
-                                       return NumberUtils.toInt(value);
-                                   }
-
-                                   @Override
-                                   public double doubleValue()
-                                   {
-                                       return NumberUtils.toDouble(value);
-                                   }
-
-                                   @Override
-                                   public boolean booleanValue()
-                                   {
-                                       return BooleanUtils.toBoolean(value);
-                                   }
-                               });
+                    if (!this.exists() || ArrayTable.this.data.isNull(RowImpl.this.rowIndex, columnIndex))
+                    {
+                        return Optional.empty();
+                    }
+                    return Optional.of(new ValueAccessor() {
+                        @Override
+                        public int intValue()
+                        {
+                            return ArrayTable.this.data.getInt(RowImpl.this.rowIndex, columnIndex);
+                        }
+
+                        @Override
+                        public long longValue()
+                        {
+                            return ArrayTable.this.data.getLong(RowImpl.this.rowIndex, columnIndex);
+                        }
+
+                        @Override
+                        public double doubleValue()
+                        {
+                            return ArrayTable.this.data.getDouble(RowImpl.this.rowIndex, columnIndex);
+                        }
+
+                        @Override
+                        public boolean booleanValue()
+                        {
+                            return ArrayTable.this.data.getBoolean(RowImpl.this.rowIndex, columnIndex);
+                        }
+                    });
                 }
 
                 @Override
@@ -715,8 +1107,9 @@ public class ArrayTable implements Table
         public Cell getCellOrNew(String columnTitle)
         {
             return this.getCell(ArrayTable.this.columnIndex.getIndexAsOptional(columnTitle)
-                                                           .orElseGet(() -> ArrayTable.this.columnIndex.addKey(columnTitle)
-                                                                                                       .getIndex(columnTitle)));
+                                                           .orElseGet(() -> ArrayTable.this.getWritableColumnIndex()
+                                                                                           .addKey(columnTitle)
+                                                                                           .getIndex(columnTitle)));
         }
 
         @Override
@@ -747,6 +1140,69 @@ public class ArrayTable implements Table
                        .flatMap(Cell::getOptionalValueAs);
         }
 
+        @Override
+        public int getInt(int columnIndex)
+        {
+            return this.hasColumn(columnIndex) ? ArrayTable.this.data.getInt(this.rowIndex, columnIndex) : 0;
+        }
+
+        @Override
+        public int getInt(String columnTitle)
+        {
+            return this.getInt(this.resolveColumnIndex(columnTitle));
+        }
+
+        @Override
+        public long getLong(int columnIndex)
+        {
+            return this.hasColumn(columnIndex) ? ArrayTable.this.data.getLong(this.rowIndex, columnIndex) : 0L;
+        }
+
+        @Override
+        public long getLong(String columnTitle)
+        {
+            return this.getLong(this.resolveColumnIndex(columnTitle));
+        }
+
+        @Override
+        public double getDouble(int columnIndex)
+        {
+            return this.hasColumn(columnIndex) ? ArrayTable.this.data.getDouble(this.rowIndex, columnIndex) : 0.0;
+        }
+
+        @Override
+        public double getDouble(String columnTitle)
+        {
+            return this.getDouble(this.resolveColumnIndex(columnTitle));
+        }
+
+        @Override
+        public boolean getBoolean(int columnIndex)
+        {
+            return this.hasColumn(columnIndex) && ArrayTable.this.data.getBoolean(this.rowIndex, columnIndex);
+        }
+
+        @Override
+        public boolean getBoolean(String columnTitle)
+        {
+            return this.getBoolean(this.resolveColumnIndex(columnTitle));
+        }
+
+        private boolean hasColumn(int columnIndex)
+        {
+            return columnIndex >= 0 && columnIndex < this.size();
+        }
+
+        private int resolveColumnIndex(String columnTitle)
+        {
+            int columnIndex = ArrayTable.this.columnIndex.indexOf(columnTitle);
+            if (columnIndex < 0)
+            {
+                throw new IllegalArgumentException("Unknown column title: " + columnTitle);
+            }
+            return columnIndex;
+        }
+
         @Override
         public List<String> getValues()
         {
@@ -821,19 +1277,32 @@ public class ArrayTable implements Table
         @Override
         public Row addValue(String value)
         {
-            int columnIndex = 0;
-            while (columnIndex < this.size() && this.getValue(columnIndex) != null)
+            int size = this.rowIndex < ArrayTable.this.data.getRowSize() ? this.size() : 0;
+            int nullWrites = ArrayTable.this.nullWrites.get(this.getNullWriteStripe());
+            int columnIndex = nullWrites == this.appendPositionNullWrites ? this.appendPosition : 0;
+            while (columnIndex < size && !ArrayTable.this.data.isNull(this.rowIndex, columnIndex))
             {
                 columnIndex++;
             }
-            this.setValue(columnIndex, value);
-            return this;
+            this.appendPosition = value != null ? columnIndex + 1 : columnIndex;
+            this.appendPositionNullWrites = nullWrites;
+            return this.setValue(columnIndex, value);
         }
 
         private Row setValue(int columnIndex, String value)
         {
+            ArrayTable.this.beforeWrite();
             ArrayTable.this.data.set(this.rowIndex, columnIndex, value);
             ArrayTable.this.columnIndex.notifyOfColumnIndexWrite(columnIndex);
+            if (value == null)
+            {
+                int previousNullWrites = ArrayTable.this.nullWrites.getAndIncrement(this.getNullWriteStripe());
+                if (previousNullWrites == this.appendPositionNullWrites)
+                {
+                    this.appendPositionNullWrites = previousNullWrites + 1;
+                    this.appendPosition = Math.min(this.appendPosition, columnIndex);
+                }
+            }
             return this;
         }
 
@@ -847,7 +1316,8 @@ public class ArrayTable implements Table
                 {
                     if (!ArrayTable.this.columnIndex.hasKey(key))
                     {
-                        ArrayTable.this.columnIndex.addKey(key);
+                        ArrayTable.this.getWritableColumnIndex()
+                                       .addKey(key);
                     }
 
                     int index = ArrayTable.this.columnIndex.getIndex(key);
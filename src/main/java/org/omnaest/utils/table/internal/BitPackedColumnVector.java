@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link CompressedColumnVector} which packs the codes with only as many bits as the dictionary size requires into a long array. A code may span two
+ * adjacent longs.
+ */
+class BitPackedColumnVector extends CompressedColumnVector
+{
+    private final long[] words;
+    private final int    bitsPerCode;
+    private final long   mask;
+
+    public BitPackedColumnVector(int[] codes, int size, int bitsPerCode, List<String> dictionary, Map<String, Integer> valueToCode)
+    {
+        super(size, dictionary, valueToCode);
+        this.bitsPerCode = bitsPerCode;
+        this.mask = (1L << bitsPerCode) - 1;
+        this.words = new long[(int) (((long) size * bitsPerCode + Long.SIZE - 1) / Long.SIZE)];
+
+        for (int ii = 0; ii < size; ii++)
+        {
+            long bitIndex = (long) ii * bitsPerCode;
+            int wordIndex = (int) (bitIndex >>> 6);
+            int offset = (int) (bitIndex & 63);
+            long code = codes[ii];
+            this.words[wordIndex] |= code << offset;
+            if (offset + bitsPerCode > Long.SIZE)
+            {
+                this.words[wordIndex + 1] |= code >>> (Long.SIZE - offset);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bits needed to represent the codes of a dictionary of the given size
+     * 
+     * @param dictionarySize
+     * @return
+     */
+    public static int determineBitsPerCode(int dictionarySize)
+    {
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(dictionarySize - 1));
+    }
+
+    @Override
+    public int getCode(int rowIndex)
+    {
+        if (rowIndex >= this.size)
+        {
+            return NULL_CODE;
+        }
+
+        long bitIndex = (long) rowIndex * this.bitsPerCode;
+        int wordIndex = (int) (bitIndex >>> 6);
+        int offset = (int) (bitIndex & 63);
+        long code = this.words[wordIndex] >>> offset;
+        if (offset + this.bitsPerCode > Long.SIZE)
+        {
+            code |= this.words[wordIndex + 1] << (Long.SIZE - offset);
+        }
+        return (int) (code & this.mask);
+    }
+
+    @Override
+    public void accumulateMemoryUsage(int columnIndex, int numberOfRows, MemoryUsage memoryUsage)
+    {
+        memoryUsage.addColumnBytes(columnIndex, MemoryUsage.sizeOfObject(4 * MemoryUsage.REFERENCE + 2 * Integer.BYTES + Long.BYTES))
+                   .addColumnBytes(columnIndex, MemoryUsage.sizeOfArray(this.words.length, Long.BYTES))
+                   .addCapacity(this.size, this.size);
+        DictionaryColumnVector.accumulateDictionaryMemoryUsage(columnIndex, this.dictionary, memoryUsage);
+    }
+
+    @Override
+    protected void decodeInto(int[] codes)
+    {
+        for (int ii = 0; ii < this.size; ii++)
+        {
+            codes[ii] = this.getCode(ii);
+        }
+    }
+
+    @Override
+    public void copyInto(String[] values)
+    {
+        int length = Math.min(this.size, values.length);
+        for (int ii = 0; ii < length; ii++)
+        {
+            values[ii] = this.dictionary.get(this.getCode(ii));
+        }
+    }
+}
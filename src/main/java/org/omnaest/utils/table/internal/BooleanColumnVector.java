@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.omnaest.utils.table.domain.ColumnType;
+
+/**
+ * {@link PrimitiveColumnVector} for {@link ColumnType#BOOLEAN}
+ */
+class BooleanColumnVector extends PrimitiveColumnVector
+{
+    private boolean[] values = new boolean[INITIAL_CAPACITY];
+
+    @Override
+    public ColumnType getColumnType()
+    {
+        return ColumnType.BOOLEAN;
+    }
+
+    @Override
+    protected void resize(int capacity)
+    {
+        this.values = Arrays.copyOf(this.values, capacity);
+    }
+
+    @Override
+    protected int getCapacity()
+    {
+        return this.values.length;
+    }
+
+    @Override
+    protected int getBytesPerValue()
+    {
+        return 1;
+    }
+
+    @Override
+    protected String format(int rowIndex)
+    {
+        return String.valueOf(this.values[rowIndex]);
+    }
+
+    @Override
+    protected boolean parseAndSet(int rowIndex, String value)
+    {
+        Boolean booleanValue = BooleanUtils.toBooleanObject(value);
+        if (booleanValue == null)
+        {
+            return false;
+        }
+        this.setRaw(rowIndex, booleanValue);
+        return true;
+    }
+
+    private void setRaw(int rowIndex, boolean value)
+    {
+        if (rowIndex >= this.values.length)
+        {
+            this.values = Arrays.copyOf(this.values, determineNewCapacity(this.values.length, rowIndex));
+        }
+        this.values[rowIndex] = value;
+    }
+
+    private boolean getRaw(int rowIndex)
+    {
+        return !this.isNull(rowIndex) && this.values[rowIndex];
+    }
+
+    @Override
+    public boolean getBoolean(int rowIndex)
+    {
+        return this.getRaw(rowIndex);
+    }
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Objects;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.omnaest.utils.table.domain.ColumnType;
+
+/**
+ * Single column of a {@link ColumnarTableData}
+ */
+interface ColumnVector
+{
+    /**
+     * Returns the value at the given row index or null, if the row index is beyond the written values.
+     * 
+     * @param rowIndex
+     * @return
+     */
+    public String get(int rowIndex);
+
+    /**
+     * Sets the value at the given row index and returns the {@link ColumnVector} which holds the value afterwards. This allows an implementation to switch
+     * to a better suited representation.
+     * 
+     * @param rowIndex
+     * @param value
+     * @return
+     */
+    public ColumnVector set(int rowIndex, String value);
+
+    public default boolean isNull(int rowIndex)
+    {
+        return this.get(rowIndex) == null;
+    }
+
+    public default int getInt(int rowIndex)
+    {
+        return NumberUtils.toInt(this.get(rowIndex));
+    }
+
+    public default long getLong(int rowIndex)
+    {
+        return NumberUtils.toLong(this.get(rowIndex));
+    }
+
+    public default double getDouble(int rowIndex)
+    {
+        return NumberUtils.toDouble(this.get(rowIndex));
+    }
+
+    public default boolean getBoolean(int rowIndex)
+    {
+        return BooleanUtils.toBoolean(this.get(rowIndex));
+    }
+
+    /**
+     * Returns the {@link ColumnType} of the values held by this {@link ColumnVector}
+     * 
+     * @return
+     */
+    public default ColumnType getColumnType()
+    {
+        return ColumnType.STRING;
+    }
+
+    /**
+     * Returns true, if any of the first rows holds the given value
+     * 
+     * @param value
+     * @param numberOfRows
+     * @return
+     */
+    public default boolean containsValue(String value, int numberOfRows)
+    {
+        for (int ii = 0; ii < numberOfRows; ii++)
+        {
+            if (Objects.equals(this.get(ii), value))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the first values into the given array
+     * 
+     * @param values
+     */
+    public default void copyInto(String[] values)
+    {
+        for (int ii = 0; ii < values.length; ii++)
+        {
+            values[ii] = this.get(ii);
+        }
+    }
+
+    /**
+     * Returns a copy of this {@link ColumnVector}, which shares no mutable state with it, so either of both can be written without affecting the other
+     * 
+     * @return
+     */
+    public ColumnVector copy();
+
+    /**
+     * Makes sure the given number of rows can be written without resizing
+     * 
+     * @param numberOfRows
+     */
+    public default void ensureCapacity(int numberOfRows)
+    {
+        // nothing to reserve by default
+    }
+
+    /**
+     * Releases the capacity beyond the given number of rows
+     * 
+     * @param numberOfRows
+     */
+    public default void trimToSize(int numberOfRows)
+    {
+        // nothing to release by default
+    }
+
+    /**
+     * Returns a {@link ColumnVector} with the same values which needs less memory. Compacted {@link ColumnVector}s are meant for read access, a later
+     * {@link #set(int, String)} may switch back to an uncompressed representation.
+     * 
+     * @return
+     */
+    public default ColumnVector compact()
+    {
+        return this;
+    }
+
+    /**
+     * Adds the estimated heap memory usage of this {@link ColumnVector} to the given column of the {@link MemoryUsage}
+     * 
+     * @param columnIndex
+     * @param numberOfRows
+     * @param memoryUsage
+     */
+    public void accumulateMemoryUsage(int columnIndex, int numberOfRows, MemoryUsage memoryUsage);
+
+    /**
+     * Returns a new empty {@link ColumnVector} for the given {@link ColumnType}
+     * 
+     * @param columnType
+     * @return
+     */
+    public static ColumnVector newInstance(ColumnType columnType)
+    {
+        switch (columnType)
+        {
+            case INT:
+                return new IntColumnVector();
+            case LONG:
+                return new LongColumnVector();
+            case DOUBLE:
+                return new DoubleColumnVector();
+            case BOOLEAN:
+                return new BooleanColumnVector();
+            default:
+                return new DictionaryColumnVector();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import org.omnaest.utils.table.Table;
+
+/**
+ * {@link Table} implementation based on a {@link ColumnarTableData} storage, which favors scans over single columns like {@link ArrayTable#getColumn(int)}
+ * over the access of whole rows.
+ * 
+ * @see Table#newColumnarInstance()
+ */
+public class ColumnarTable extends ArrayTable
+{
+    public ColumnarTable()
+    {
+        super(new ColumnarTableData());
+    }
+}
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Optional;
+
+import org.omnaest.utils.table.domain.ColumnType;
+
+/**
+ * Column oriented {@link TableStorage} which keeps one growable {@link ColumnVector} per column. Scanning the values of a single column does only touch the
+ * array of that column.<br>
+ * <br>
+ * Columns start {@link DictionaryEncodedColumn dictionary encoded}, so columns with only a few distinct values are held as int codes referring to a single
+ * {@link String} instance per distinct value. Columns with mostly distinct values switch over to plain {@link String} arrays automatically.<br>
+ * <br>
+ * Columns with a declared {@link ColumnType} are stored in primitive arrays. {@link #compact()} compresses the dictionary encoded columns for read access.<br>
+ * <br>
+ * A {@link #snapshot()} is a read only {@link ColumnarTableData} sharing the current {@link ColumnVector}s. The first write into a shared column afterwards
+ * copies only that column.
+ * 
+ * @see TableData
+ */
+public class ColumnarTableData implements TableStorage
+{
+    private static final ColumnVector EMPTY_COLUMN = new StringColumnVector(new String[0]);
+
+    private final boolean  readOnly;
+    private ColumnVector[] columns                 = new ColumnVector[0];
+    private int            numberOfRows            = 0;
+    private int            numberOfColumns         = 0;
+    private int            numberOfDeclaredColumns = 0;
+    private int            expectedRows            = 0;
+    private BitSet         sharedColumns           = new BitSet();
+
+    public ColumnarTableData()
+    {
+        super();
+        this.readOnly = false;
+    }
+
+    private ColumnarTableData(ColumnVector[] columns, int numberOfRows, int numberOfColumns, int numberOfDeclaredColumns)
+    {
+        super();
+        this.readOnly = true;
+        this.columns = columns;
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        this.numberOfDeclaredColumns = numberOfDeclaredColumns;
+    }
+
+    /**
+     * Returns the number of {@link ColumnVector}s to keep, which includes the typed columns declared by {@link #setColumnType(int, ColumnType)} beyond
+     * the highest written column
+     * 
+     * @return
+     */
+    private int getNumberOfAllocatedColumns()
+    {
+        return Math.max(this.numberOfColumns, this.numberOfDeclaredColumns);
+    }
+
+    @Override
+    public String get(int rowIndex, int columnIndex)
+    {
+        return this.getColumnVector(rowIndex, columnIndex)
+                   .get(rowIndex);
+    }
+
+    private void validateIndexOutOfBoundsForRow(int rowIndex)
+    {
+        if (rowIndex < 0 || rowIndex >= this.numberOfRows)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void validateIndexOutOfBoundsForColumn(int columnIndex)
+    {
+        if (columnIndex < 0 || columnIndex >= this.numberOfColumns)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void validateWritable()
+    {
+        if (this.readOnly)
+        {
+            throw new UnsupportedOperationException("Snapshot of columnar table data is read only");
+        }
+    }
+
+    @Override
+    public void set(int rowIndex, int columnIndex, String value)
+    {
+        this.validateWritable();
+        if (rowIndex < 0 || columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        this.numberOfRows = Math.max(this.numberOfRows, rowIndex + 1);
+        this.numberOfColumns = Math.max(this.numberOfColumns, columnIndex + 1);
+        this.extendColumnsIfNecessary(columnIndex);
+
+        ColumnVector column = this.columns[columnIndex];
+        if (column == null)
+        {
+            if (value == null)
+            {
+                // not yet allocated cells are null already
+                return;
+            }
+            column = new DictionaryColumnVector();
+            column.ensureCapacity(this.expectedRows);
+        }
+        else if (this.sharedColumns.get(columnIndex))
+        {
+            column = column.copy();
+            this.sharedColumns.clear(columnIndex);
+        }
+        this.columns[columnIndex] = column.set(rowIndex, value);
+    }
+
+    private void extendColumnsIfNecessary(int columnIndex)
+    {
+        if (columnIndex >= this.columns.length)
+        {
+            this.columns = Arrays.copyOf(this.columns, Math.max(columnIndex + 1, this.columns.length * 2));
+        }
+    }
+
+    @Override
+    public int getRowSize()
+    {
+        return this.numberOfRows;
+    }
+
+    @Override
+    public int getColumnSize()
+    {
+        return this.numberOfColumns;
+    }
+
+    @Override
+    public void setRowSize(int rowSize)
+    {
+        this.validateWritable();
+        this.numberOfRows = Math.max(this.numberOfRows, rowSize);
+    }
+
+    @Override
+    public String[] getRow(int rowIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+
+        String[] result = new String[this.numberOfColumns];
+        for (int ii = 0; ii < result.length; ii++)
+        {
+            result[ii] = this.get(rowIndex, ii);
+        }
+        return result;
+    }
+
+    @Override
+    public String[] getColumn(int columnIndex)
+    {
+        if (columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        String[] result = new String[this.numberOfRows];
+        ColumnVector column = columnIndex < this.numberOfColumns ? this.columns[columnIndex] : null;
+        if (column != null)
+        {
+            column.copyInto(result);
+        }
+        return result;
+    }
+
+    @Override
+    public void setColumnType(int columnIndex, ColumnType columnType)
+    {
+        this.validateWritable();
+        if (columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        this.extendColumnsIfNecessary(columnIndex);
+        this.numberOfDeclaredColumns = Math.max(this.numberOfDeclaredColumns, columnIndex + 1);
+
+        ColumnVector previousColumn = this.columns[columnIndex];
+        if (previousColumn == null || !previousColumn.getColumnType()
+                                                     .equals(columnType))
+        {
+            ColumnVector column = ColumnVector.newInstance(columnType);
+            column.ensureCapacity(this.expectedRows);
+            if (previousColumn != null)
+            {
+                for (int rowIndex = 0; rowIndex < this.numberOfRows; rowIndex++)
+                {
+                    column = column.set(rowIndex, previousColumn.get(rowIndex));
+                }
+            }
+            this.columns[columnIndex] = column;
+            this.sharedColumns.clear(columnIndex);
+        }
+    }
+
+    @Override
+    public void ensureCapacity(int expectedRows, int expectedColumns)
+    {
+        if (this.readOnly)
+        {
+            return;
+        }
+        this.expectedRows = Math.max(this.expectedRows, expectedRows);
+        if (expectedColumns > this.columns.length)
+        {
+            this.columns = Arrays.copyOf(this.columns, expectedColumns);
+        }
+        for (int columnIndex = 0; columnIndex < this.columns.length; columnIndex++)
+        {
+            ColumnVector column = this.columns[columnIndex];
+            if (column != null && !this.sharedColumns.get(columnIndex))
+            {
+                column.ensureCapacity(expectedRows);
+            }
+        }
+    }
+
+    /**
+     * Shrinks all columns to the current number of rows and drops the unused column slots, but keeps the typed columns declared beyond the highest written
+     * column. Columns shared with a snapshot are left untouched.
+     */
+    @Override
+    public void trimToSize()
+    {
+        if (this.readOnly)
+        {
+            return;
+        }
+        int numberOfAllocatedColumns = this.getNumberOfAllocatedColumns();
+        this.columns = Arrays.copyOf(this.columns, numberOfAllocatedColumns);
+        for (int columnIndex = 0; columnIndex < numberOfAllocatedColumns; columnIndex++)
+        {
+            ColumnVector column = this.columns[columnIndex];
+            if (column != null && !this.sharedColumns.get(columnIndex))
+            {
+                column.trimToSize(this.numberOfRows);
+            }
+        }
+        this.expectedRows = 0;
+    }
+
+    /**
+     * Replaces all dictionary encoded columns by their run length encoded or bit packed form, whichever is smaller. Compacting does not modify the previous
+     * {@link ColumnVector}, so the compacted form of a column shared with a snapshot stays marked as shared.
+     */
+    @Override
+    public void compact()
+    {
+        if (this.readOnly)
+        {
+            return;
+        }
+        this.trimToSize();
+        for (int columnIndex = 0; columnIndex < this.columns.length; columnIndex++)
+        {
+            ColumnVector column = this.columns[columnIndex];
+            if (column != null)
+            {
+                this.columns[columnIndex] = column.compact();
+            }
+        }
+    }
+
+    /**
+     * Returns a read only {@link ColumnarTableData} which shares the current {@link ColumnVector}s. All of them are marked as shared, so they are copied
+     * before they are written again.
+     */
+    @Override
+    public TableStorage snapshot()
+    {
+        if (this.readOnly)
+        {
+            return this;
+        }
+        int numberOfAllocatedColumns = this.getNumberOfAllocatedColumns();
+        this.sharedColumns.set(0, numberOfAllocatedColumns);
+        return new ColumnarTableData(Arrays.copyOf(this.columns, numberOfAllocatedColumns), this.numberOfRows, this.numberOfColumns,
+                                     this.numberOfDeclaredColumns);
+    }
+
+    @Override
+    public void accumulateMemoryUsage(MemoryUsage memoryUsage)
+    {
+        memoryUsage.addOverhead(MemoryUsage.sizeOfObject(2 * MemoryUsage.REFERENCE + 4 * Integer.BYTES + 1))
+                   .addOverhead(MemoryUsage.sizeOfBitSet(this.sharedColumns))
+                   .addOverhead(MemoryUsage.sizeOfArray(this.columns.length, MemoryUsage.REFERENCE));
+        for (int columnIndex = 0; columnIndex < this.numberOfColumns; columnIndex++)
+        {
+            ColumnVector column = this.columns[columnIndex];
+            if (column != null)
+            {
+                column.accumulateMemoryUsage(columnIndex, this.numberOfRows, memoryUsage);
+            }
+        }
+    }
+
+    @Override
+    public boolean isNull(int rowIndex, int columnIndex)
+    {
+        return this.getColumnVector(rowIndex, columnIndex)
+                   .isNull(rowIndex);
+    }
+
+    @Override
+    public int getInt(int rowIndex, int columnIndex)
+    {
+        return this.getColumnVector(rowIndex, columnIndex)
+                   .getInt(rowIndex);
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex)
+    {
+        return this.getColumnVector(rowIndex, columnIndex)
+                   .getLong(rowIndex);
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex)
+    {
+        return this.getColumnVector(rowIndex, columnIndex)
+                   .getDouble(rowIndex);
+    }
+
+    @Override
+    public boolean getBoolean(int rowIndex, int columnIndex)
+    {
+        return this.getColumnVector(rowIndex, columnIndex)
+                   .getBoolean(rowIndex);
+    }
+
+    private ColumnVector getColumnVector(int rowIndex, int columnIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+        this.validateIndexOutOfBoundsForColumn(columnIndex);
+        ColumnVector column = this.columns[columnIndex];
+        return column != null ? column : EMPTY_COLUMN;
+    }
+
+    @Override
+    public boolean containsValue(int columnIndex, String value)
+    {
+        this.validateIndexOutOfBoundsForColumn(columnIndex);
+        ColumnVector column = this.columns[columnIndex];
+        return column != null ? column.containsValue(value, this.numberOfRows) : value == null && this.numberOfRows > 0;
+    }
+
+    @Override
+    public Optional<DictionaryEncodedColumn> getDictionaryEncodedColumn(int columnIndex)
+    {
+        return Optional.ofNullable(columnIndex >= 0 && columnIndex < this.numberOfColumns ? this.columns[columnIndex] : null)
+                       .filter(DictionaryEncodedColumn.class::isInstance)
+                       .map(DictionaryEncodedColumn.class::cast);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return TableStorage.contentHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof TableStorage))
+        {
+            return false;
+        }
+        return TableStorage.contentEquals(this, (TableStorage) obj);
+    }
+
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read optimized {@link DictionaryEncodedColumn} created by {@link ColumnVector#compact()}. Writing a different value switches back to a
+ * {@link DictionaryColumnVector}.
+ * 
+ * @see RunLengthColumnVector
+ * @see BitPackedColumnVector
+ */
+abstract class CompressedColumnVector implements ColumnVector, DictionaryEncodedColumn
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    protected final int                  size;
+    protected final List<String>         dictionary;
+    protected final Map<String, Integer> valueToCode;
+
+    protected CompressedColumnVector(int size, List<String> dictionary, Map<String, Integer> valueToCode)
+    {
+        super();
+        this.size = size;
+        this.dictionary = dictionary;
+        this.valueToCode = valueToCode;
+    }
+
+    @Override
+    public String get(int rowIndex)
+    {
+        return this.dictionary.get(this.getCode(rowIndex));
+    }
+
+    @Override
+    public ColumnVector set(int rowIndex, String value)
+    {
+        int code = this.getCode(value);
+        if (code >= 0 && code == this.getCode(rowIndex))
+        {
+            return this;
+        }
+
+        int[] codes = new int[Math.max(Math.max(this.size, rowIndex + 1), INITIAL_CAPACITY)];
+        this.decodeInto(codes);
+        return new DictionaryColumnVector(codes, this.size, this.dictionary, this.valueToCode).set(rowIndex, value);
+    }
+
+    /**
+     * Returns a {@link DictionaryColumnVector} with a copy of the dictionary, since a written copy would extend it
+     */
+    @Override
+    public ColumnVector copy()
+    {
+        int[] codes = new int[Math.max(this.size, INITIAL_CAPACITY)];
+        this.decodeInto(codes);
+        return new DictionaryColumnVector(codes, this.size, new ArrayList<>(this.dictionary), new HashMap<>(this.valueToCode));
+    }
+
+    @Override
+    public boolean containsValue(String value, int numberOfRows)
+    {
+        int code = this.getCode(value);
+        if (code < 0)
+        {
+            return false;
+        }
+        for (int ii = 0; ii < numberOfRows; ii++)
+        {
+            if (this.getCode(ii) == code)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the codes of all rows into the given array, which has at least the size of this {@link ColumnVector}
+     * 
+     * @param codes
+     */
+    protected abstract void decodeInto(int[] codes);
+
+    @Override
+    public int getCode(String value)
+    {
+        return value == null ? NULL_CODE : this.valueToCode.getOrDefault(value, -1);
+    }
+
+    @Override
+    public String getValue(int code)
+    {
+        return this.dictionary.get(code);
+    }
+
+    @Override
+    public int getDictionarySize()
+    {
+        return this.dictionary.size();
+    }
+
+    @Override
+    public ColumnVector compact()
+    {
+        return this;
+    }
+}
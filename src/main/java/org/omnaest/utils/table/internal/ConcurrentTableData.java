@@ -0,0 +1,431 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Row oriented {@link TableStorage} which can be written and read by multiple threads at the same time.<br>
+ * <br>
+ * New rows are reserved by an atomic increment of the row size, so concurrent producers never get the same row index. The rows are held in segments of
+ * {@value #SEGMENT_SIZE} rows, which are grouped into pages of {@value #PAGE_SIZE} segments below a fixed size directory. Pages, segments and rows are
+ * allocated on their first write and installed by a compare and set, so growing the storage never copies or replaces existing data. Readers take no locks
+ * and see a reserved but not yet written row as a row of null values.<br>
+ * <br>
+ * Cells are written by a compare and set. A row which has to be widened is retired by a single thread, which moves every cell into the wider copy by
+ * replacing it with a marker. Writers and readers, which meet such a marker, wait until the copy is installed and retry on it, so no concurrent write can
+ * get lost by the widening.
+ * 
+ * @see TableData
+ */
+public class ConcurrentTableData implements TableStorage
+{
+    private static final int SEGMENT_SIZE_BITS = 10;
+    private static final int SEGMENT_SIZE      = 1 << SEGMENT_SIZE_BITS;
+    private static final int SEGMENT_SIZE_MASK = SEGMENT_SIZE - 1;
+    private static final int PAGE_SIZE_BITS    = 10;
+    private static final int PAGE_SIZE         = 1 << PAGE_SIZE_BITS;
+    private static final int PAGE_SIZE_MASK    = PAGE_SIZE - 1;
+    private static final int DIRECTORY_SIZE    = 1 << (Integer.SIZE - 1 - SEGMENT_SIZE_BITS - PAGE_SIZE_BITS);
+
+    /**
+     * Marker of a cell, which has been moved into a wider copy of its row. It is compared by identity only.
+     */
+    private static final String MOVED = new String("moved");
+
+    private final AtomicReferenceArray<Page> directory       = new AtomicReferenceArray<>(DIRECTORY_SIZE);
+    private final AtomicInteger              numberOfRows    = new AtomicInteger();
+    private final AtomicInteger              numberOfColumns = new AtomicInteger();
+    private volatile int                     expectedColumns = 0;
+
+    @Override
+    public String get(int rowIndex, int columnIndex)
+    {
+        this.validateIndexOutOfBounds(rowIndex, columnIndex);
+        Segment segment = this.getSegment(rowIndex, false);
+        if (segment == null)
+        {
+            return null;
+        }
+
+        int slot = rowIndex & SEGMENT_SIZE_MASK;
+        while (true)
+        {
+            Row row = segment.get(slot);
+            if (row == null || columnIndex >= row.length())
+            {
+                return null;
+            }
+            String value = row.get(columnIndex);
+            if (value != MOVED)
+            {
+                return value;
+            }
+            awaitReplacement(segment, slot, row);
+        }
+    }
+
+    private void validateIndexOutOfBounds(int rowIndex, int columnIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+        if (columnIndex < 0 || columnIndex >= this.numberOfColumns.get())
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void validateIndexOutOfBoundsForRow(int rowIndex)
+    {
+        if (rowIndex < 0 || rowIndex >= this.numberOfRows.get())
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Returns a copy of the values of the given row with at least the given length or null, if the row is not allocated
+     * 
+     * @param rowIndex
+     * @param length
+     * @return
+     */
+    private String[] readRow(int rowIndex, int length)
+    {
+        Segment segment = this.getSegment(rowIndex, false);
+        if (segment == null)
+        {
+            return null;
+        }
+
+        int slot = rowIndex & SEGMENT_SIZE_MASK;
+        while (true)
+        {
+            Row row = segment.get(slot);
+            if (row == null)
+            {
+                return null;
+            }
+            String[] values = new String[Math.max(length, row.length())];
+            boolean moved = false;
+            for (int columnIndex = 0; columnIndex < row.length() && !moved; columnIndex++)
+            {
+                values[columnIndex] = row.get(columnIndex);
+                moved = values[columnIndex] == MOVED;
+            }
+            if (!moved)
+            {
+                return values;
+            }
+            awaitReplacement(segment, slot, row);
+        }
+    }
+
+    private static void awaitReplacement(Segment segment, int slot, Row row)
+    {
+        while (segment.get(slot) == row)
+        {
+            Thread.onSpinWait();
+        }
+    }
+
+    private Segment getSegment(int rowIndex, boolean create)
+    {
+        int segmentIndex = rowIndex >>> SEGMENT_SIZE_BITS;
+        Page page = create ? getOrCreate(this.directory, segmentIndex >>> PAGE_SIZE_BITS, Page::new) : this.directory.get(segmentIndex >>> PAGE_SIZE_BITS);
+        if (page == null)
+        {
+            return null;
+        }
+        return create ? getOrCreate(page, segmentIndex & PAGE_SIZE_MASK, Segment::new) : page.get(segmentIndex & PAGE_SIZE_MASK);
+    }
+
+    /**
+     * Returns the element at the given index and installs a new element, if there is none yet. If multiple threads race for the same index, all of them
+     * get the element of the winning thread.
+     * 
+     * @param array
+     * @param index
+     * @param factory
+     * @return
+     */
+    private static <E> E getOrCreate(AtomicReferenceArray<E> array, int index, Supplier<E> factory)
+    {
+        E element = array.get(index);
+        if (element == null)
+        {
+            E newElement = factory.get();
+            element = array.compareAndSet(index, null, newElement) ? newElement : array.get(index);
+        }
+        return element;
+    }
+
+    @Override
+    public void set(int rowIndex, int columnIndex, String value)
+    {
+        if (rowIndex < 0 || columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        this.numberOfRows.accumulateAndGet(rowIndex + 1, Math::max);
+        this.numberOfColumns.accumulateAndGet(columnIndex + 1, Math::max);
+
+        Segment segment = this.getSegment(rowIndex, true);
+        int slot = rowIndex & SEGMENT_SIZE_MASK;
+        while (true)
+        {
+            Row row = segment.get(slot);
+            if (row == null || columnIndex >= row.length())
+            {
+                if (value == null)
+                {
+                    // not yet allocated cells are null already
+                    return;
+                }
+                if (row == null)
+                {
+                    segment.compareAndSet(slot, null, new Row(Math.max(Math.max(columnIndex + 1, this.numberOfColumns.get()), this.expectedColumns)));
+                }
+                else
+                {
+                    this.extendRow(segment, slot, row, columnIndex);
+                }
+                continue;
+            }
+
+            String currentValue = row.get(columnIndex);
+            if (currentValue == MOVED)
+            {
+                awaitReplacement(segment, slot, row);
+            }
+            else if (row.compareAndSet(columnIndex, currentValue, value))
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Replaces the given row by a wider copy. Only the thread which retires the row copies it, all other threads wait for the copy. Each cell is moved by
+     * an atomic swap with the {@link #MOVED} marker, so a concurrent write either lands before the swap and is copied or fails its compare and set and is
+     * retried on the copy.
+     * 
+     * @param segment
+     * @param slot
+     * @param row
+     * @param columnIndex
+     */
+    private void extendRow(Segment segment, int slot, Row row, int columnIndex)
+    {
+        if (!row.retire())
+        {
+            awaitReplacement(segment, slot, row);
+            return;
+        }
+
+        Row newRow = new Row(Math.max(Math.max(columnIndex + 1, this.numberOfColumns.get()), row.length() + (row.length() >> 1)));
+        for (int ii = 0; ii < row.length(); ii++)
+        {
+            newRow.set(ii, row.getAndSet(ii, MOVED));
+        }
+        segment.set(slot, newRow);
+    }
+
+    @Override
+    public int getRowSize()
+    {
+        return this.numberOfRows.get();
+    }
+
+    @Override
+    public int getColumnSize()
+    {
+        return this.numberOfColumns.get();
+    }
+
+    @Override
+    public void setRowSize(int rowSize)
+    {
+        this.numberOfRows.accumulateAndGet(rowSize, Math::max);
+    }
+
+    /**
+     * Reserves the next row index by an atomic increment of the row size
+     * 
+     * @throws IllegalStateException
+     *             if the maximum number of rows is reached
+     */
+    @Override
+    public int appendRow()
+    {
+        return this.numberOfRows.getAndUpdate(rowSize ->
+        {
+            if (rowSize == Integer.MAX_VALUE)
+            {
+                throw new IllegalStateException("Maximum number of rows reached: " + rowSize);
+            }
+            return rowSize + 1;
+        });
+    }
+
+    /**
+     * Allocates the segments for the expected rows and newly written rows with at least the expected number of columns
+     */
+    @Override
+    public void ensureCapacity(int expectedRows, int expectedColumns)
+    {
+        for (int rowIndex = 0; rowIndex < expectedRows; rowIndex += SEGMENT_SIZE)
+        {
+            this.getSegment(rowIndex, true);
+        }
+        this.expectedColumns = Math.max(this.expectedColumns, expectedColumns);
+    }
+
+    @Override
+    public void accumulateMemoryUsage(MemoryUsage memoryUsage)
+    {
+        memoryUsage.addOverhead(MemoryUsage.sizeOfObject(4 * MemoryUsage.REFERENCE + Integer.BYTES))
+                   .addOverhead(MemoryUsage.sizeOfArray(DIRECTORY_SIZE, MemoryUsage.REFERENCE));
+        for (int pageIndex = 0; pageIndex < DIRECTORY_SIZE; pageIndex++)
+        {
+            Page page = this.directory.get(pageIndex);
+            if (page != null)
+            {
+                memoryUsage.addOverhead(MemoryUsage.sizeOfObject(MemoryUsage.REFERENCE) + MemoryUsage.sizeOfArray(PAGE_SIZE, MemoryUsage.REFERENCE));
+                for (int ii = 0; ii < PAGE_SIZE; ii++)
+                {
+                    if (page.get(ii) != null)
+                    {
+                        memoryUsage.addOverhead(MemoryUsage.sizeOfObject(MemoryUsage.REFERENCE) + MemoryUsage.sizeOfArray(SEGMENT_SIZE, MemoryUsage.REFERENCE));
+                    }
+                }
+            }
+        }
+
+        int numberOfRows = this.numberOfRows.get();
+        int numberOfColumns = this.numberOfColumns.get();
+        for (int rowIndex = 0; rowIndex < numberOfRows; rowIndex++)
+        {
+            String[] row = this.readRow(rowIndex, 0);
+            if (row != null)
+            {
+                int usedCapacity = Math.min(row.length, numberOfColumns);
+                memoryUsage.addOverhead(MemoryUsage.sizeOfObject(2 * MemoryUsage.REFERENCE) + MemoryUsage.sizeOfArray(row.length, MemoryUsage.REFERENCE)
+                        - (long) usedCapacity * MemoryUsage.REFERENCE)
+                           .addCapacity(usedCapacity, row.length);
+                for (int columnIndex = 0; columnIndex < usedCapacity; columnIndex++)
+                {
+                    memoryUsage.addColumnBytes(columnIndex, MemoryUsage.REFERENCE)
+                               .addColumnValue(columnIndex, row[columnIndex]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String[] getRow(int rowIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+
+        int numberOfColumns = this.numberOfColumns.get();
+        String[] row = this.readRow(rowIndex, numberOfColumns);
+        return row != null ? Arrays.copyOf(row, numberOfColumns) : new String[numberOfColumns];
+    }
+
+    @Override
+    public String[] getColumn(int columnIndex)
+    {
+        if (columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        String[] result = new String[this.numberOfRows.get()];
+        if (columnIndex < this.numberOfColumns.get())
+        {
+            for (int rowIndex = 0; rowIndex < result.length; rowIndex++)
+            {
+                result[rowIndex] = this.get(rowIndex, columnIndex);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return TableStorage.contentHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof TableStorage))
+        {
+            return false;
+        }
+        return TableStorage.contentEquals(this, (TableStorage) obj);
+    }
+
+    private static class Page extends AtomicReferenceArray<Segment>
+    {
+        private static final long serialVersionUID = 1L;
+
+        public Page()
+        {
+            super(PAGE_SIZE);
+        }
+    }
+
+    private static class Segment extends AtomicReferenceArray<Row>
+    {
+        private static final long serialVersionUID = 1L;
+
+        public Segment()
+        {
+            super(SEGMENT_SIZE);
+        }
+    }
+
+    private static class Row extends AtomicReferenceArray<String>
+    {
+        private static final long   serialVersionUID = 1L;
+        private final AtomicBoolean retired          = new AtomicBoolean();
+
+        public Row(int length)
+        {
+            super(length);
+        }
+
+        /**
+         * Marks this row as retired and returns true, if the calling thread is the first one to do so
+         * 
+         * @return
+         */
+        public boolean retire()
+        {
+            return this.retired.compareAndSet(false, true);
+        }
+    }
+}
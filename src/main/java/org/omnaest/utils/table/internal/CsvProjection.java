@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.csv.CSVFormat;
+
+/**
+ * Projection of csv records onto a subset of their columns, given by the header names of the wanted columns
+ * 
+ * @see CsvReaderOptionsImpl#withColumns(List)
+ */
+class CsvProjection
+{
+    private final List<String> columnTitles;
+    private final int[]        recordIndexes;
+    private final boolean[]    selection;
+
+    private CsvProjection(List<String> columnTitles, int[] recordIndexes, boolean[] selection)
+    {
+        super();
+        this.columnTitles = columnTitles;
+        this.recordIndexes = recordIndexes;
+        this.selection = selection;
+    }
+
+    /**
+     * Returns the {@link CsvProjection} of the given header names onto the given columns in the given order. If no columns are given, all columns are
+     * kept unchanged.
+     * 
+     * @throws IllegalArgumentException
+     *             if a column is not part of the header names
+     * @param headerNames
+     * @param columns
+     * @return
+     */
+    public static CsvProjection of(List<String> headerNames, List<String> columns)
+    {
+        if (columns == null)
+        {
+            return new CsvProjection(headerNames, null, null);
+        }
+
+        int[] recordIndexes = new int[columns.size()];
+        boolean[] selection = new boolean[headerNames.size()];
+        for (int ii = 0; ii < recordIndexes.length; ii++)
+        {
+            int recordIndex = headerNames.lastIndexOf(columns.get(ii));
+            if (recordIndex < 0)
+            {
+                throw new IllegalArgumentException("Column not found in header: " + columns.get(ii));
+            }
+            recordIndexes[ii] = recordIndex;
+            selection[recordIndex] = true;
+        }
+        return new CsvProjection(new ArrayList<>(columns), recordIndexes, selection);
+    }
+
+    /**
+     * Similar to {@link #of(List, List)}, but validates the header names first like a {@link org.apache.commons.csv.CSVParser} validates the header record
+     * of the given {@link CSVFormat}. Empty header names require {@link CSVFormat#getAllowMissingColumnNames()}, duplicate header names require
+     * {@link CSVFormat#getAllowDuplicateHeaderNames()}, unless they are empty.
+     * 
+     * @throws IllegalArgumentException
+     *             if a header name is missing or duplicated, or if a column is not part of the header names
+     * @param headerNames
+     * @param csvFormat
+     * @param columns
+     * @return
+     */
+    public static CsvProjection of(List<String> headerNames, CSVFormat csvFormat, List<String> columns)
+    {
+        Set<String> distinctHeaderNames = new HashSet<>();
+        for (String headerName : headerNames)
+        {
+            boolean missing = headerName == null || headerName.trim()
+                                                               .isEmpty();
+            if (missing && !csvFormat.getAllowMissingColumnNames())
+            {
+                throw new IllegalArgumentException("A header name is missing in " + headerNames);
+            }
+            if (!distinctHeaderNames.add(headerName) && !missing && !csvFormat.getAllowDuplicateHeaderNames())
+            {
+                throw new IllegalArgumentException("The header contains a duplicate name: \"" + headerName + "\" in " + headerNames);
+            }
+        }
+        return of(headerNames, columns);
+    }
+
+    public List<String> getColumnTitles()
+    {
+        return this.columnTitles;
+    }
+
+    /**
+     * Returns the record indexes to read or null, if all values are needed
+     * 
+     * @return
+     */
+    public boolean[] getSelection()
+    {
+        return this.selection;
+    }
+
+    public String[] apply(String[] record)
+    {
+        if (this.recordIndexes == null)
+        {
+            return record;
+        }
+
+        String[] result = new String[this.recordIndexes.length];
+        for (int ii = 0; ii < result.length; ii++)
+        {
+            int recordIndex = this.recordIndexes[ii];
+            result[ii] = recordIndex < record.length ? record[recordIndex] : null;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.apache.commons.csv.CSVFormat;
+import org.omnaest.utils.table.components.TableDeserializer.CsvReaderOptions;
+import org.omnaest.utils.table.domain.Row;
+
+import lombok.Getter;
+
+class CsvReaderOptionsImpl implements CsvReaderOptions
+{
+    @Getter
+    private CSVFormat csvFormat = TableSerializerImpl.DEFAULT_CSV_FORMAT.withFirstRecordAsHeader();
+
+    @Getter
+    private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+    @Getter
+    private List<String> columns;
+
+    @Getter
+    private Predicate<Row> filter;
+
+    @Getter
+    private long skip = 0;
+
+    @Getter
+    private long limit = Long.MAX_VALUE;
+
+    @Getter
+    private Integer sampleSize;
+
+    @Getter
+    private Long samplingSeed;
+
+    @Override
+    public CsvReaderOptions withDelimiter(char delimiter)
+    {
+        this.csvFormat = this.csvFormat.withDelimiter(delimiter);
+        return this;
+    }
+
+    @Override
+    public CsvReaderOptions withForkJoinPool(ForkJoinPool forkJoinPool)
+    {
+        this.forkJoinPool = forkJoinPool;
+        return this;
+    }
+
+    @Override
+    public CsvReaderOptions withColumns(String... columnTitles)
+    {
+        return this.withColumns(Arrays.asList(columnTitles));
+    }
+
+    @Override
+    public CsvReaderOptions withColumns(List<String> columnTitles)
+    {
+        this.columns = columnTitles;
+        return this;
+    }
+
+    @Override
+    public CsvReaderOptions withFilter(Predicate<Row> filter)
+    {
+        this.filter = filter;
+        return this;
+    }
+
+    @Override
+    public CsvReaderOptions withSkip(long numberOfRows)
+    {
+        this.skip = validateNotNegative(numberOfRows);
+        return this;
+    }
+
+    @Override
+    public CsvReaderOptions withLimit(long numberOfRows)
+    {
+        this.limit = validateNotNegative(numberOfRows);
+        return this;
+    }
+
+    @Override
+    public CsvReaderOptions withSampling(int sampleSize)
+    {
+        this.sampleSize = (int) validateNotNegative(sampleSize);
+        this.samplingSeed = null;
+        return this;
+    }
+
+    @Override
+    public CsvReaderOptions withSampling(int sampleSize, long seed)
+    {
+        this.sampleSize = (int) validateNotNegative(sampleSize);
+        this.samplingSeed = seed;
+        return this;
+    }
+
+    private static long validateNotNegative(long value)
+    {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the maximum number of rows, which can result from the given number of records
+     * 
+     * @param numberOfRecords
+     * @return
+     */
+    public int determineMaximumNumberOfRows(int numberOfRecords)
+    {
+        long numberOfRows = Math.min(Math.max(0, numberOfRecords - this.skip), this.limit);
+        return (int) (this.sampleSize != null ? Math.min(numberOfRows, this.sampleSize) : numberOfRows);
+    }
+
+    public static CsvReaderOptionsImpl newInstanceAndAccept(Consumer<CsvReaderOptions> csvReaderOptionsConsumer)
+    {
+        CsvReaderOptionsImpl instance = new CsvReaderOptionsImpl();
+
+        if (csvReaderOptionsConsumer != null)
+        {
+            csvReaderOptionsConsumer.accept(instance);
+        }
+
+        return instance;
+    }
+}
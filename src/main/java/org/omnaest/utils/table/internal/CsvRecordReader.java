@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Reads csv records one by one as {@link String} arrays. The header is not treated in any special way, so it is returned as the first record.
+ * 
+ * @see #of(Reader, CSVFormat)
+ */
+interface CsvRecordReader extends Closeable
+{
+    /**
+     * Returns the values of the next record or null, if there are no more records. Only the values whose index is selected are read into {@link String}s,
+     * all other values are null. A null selection selects all values.
+     * 
+     * @param selection
+     * @return
+     * @throws IOException
+     */
+    public String[] next(boolean[] selection) throws IOException;
+
+    /**
+     * Returns a {@link CsvTokenizer} for all {@link CSVFormat}s it supports and a {@link CSVParser} based {@link CsvRecordReader} otherwise, which reads
+     * all values regardless of the selection
+     * 
+     * @param reader
+     * @param csvFormat
+     * @return
+     * @throws IOException
+     */
+    public static CsvRecordReader of(Reader reader, CSVFormat csvFormat) throws IOException
+    {
+        if (CsvTokenizer.supports(csvFormat))
+        {
+            return new CsvTokenizer(reader, csvFormat);
+        }
+
+        CSVParser parser = csvFormat.withHeader((String[]) null)
+                                    .parse(reader);
+        Iterator<CSVRecord> records = parser.iterator();
+        return new CsvRecordReader() {
+            @Override
+            public String[] next(boolean[] selection)
+            {
+                return records.hasNext() ? records.next()
+                                                  .values()
+                        : null;
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                parser.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.omnaest.utils.exception.RuntimeIOException;
+import org.omnaest.utils.table.domain.Row;
+
+/**
+ * Helper for the {@link Stream}s of csv records, which applies the row filter, skip, limit and sampling of the {@link CsvReaderOptionsImpl} before any
+ * record becomes a {@link Row} of a {@link ArrayTable}.
+ */
+class CsvRecordStreams
+{
+    private CsvRecordStreams()
+    {
+        super();
+    }
+
+    /**
+     * Returns a lazy {@link Stream} of the remaining records of the given {@link CsvRecordReader}, projected by the given {@link CsvProjection}. The
+     * {@link CsvRecordReader} is not closed by the {@link Stream}.
+     * 
+     * @param recordReader
+     * @param projection
+     * @return
+     */
+    public static Stream<String[]> of(CsvRecordReader recordReader, CsvProjection projection)
+    {
+        boolean[] selection = projection.getSelection();
+        Iterator<String[]> records = new Iterator<String[]>() {
+            private String[] record = this.readRecord();
+
+            private String[] readRecord()
+            {
+                try
+                {
+                    return recordReader.next(selection);
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return this.record != null;
+            }
+
+            @Override
+            public String[] next()
+            {
+                if (this.record == null)
+                {
+                    throw new NoSuchElementException();
+                }
+                String[] record = projection.apply(this.record);
+                this.record = this.readRecord();
+                return record;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returns a {@link Predicate} of projected records with the given column titles, which passes each record as {@link Row} of a {@link ScanTableData}
+     * based view to the given filter. The returned {@link Predicate} is not thread safe. A null filter accepts all records.
+     * 
+     * @param columnTitles
+     * @param filter
+     * @return
+     */
+    public static Predicate<String[]> newFilter(List<String> columnTitles, Predicate<Row> filter)
+    {
+        if (filter == null)
+        {
+            return record -> true;
+        }
+
+        ScanTableData data = new ScanTableData(columnTitles.size());
+        ArrayTable table = new ArrayTable(data);
+        table.addColumnTitles(columnTitles);
+        return record -> filter.test(table.getRow(data.next(record)));
+    }
+
+    /**
+     * Applies the skip, limit and sampling of the given {@link CsvReaderOptionsImpl} to the given records
+     * 
+     * @param records
+     * @param options
+     * @return
+     */
+    public static Stream<String[]> applyLimits(Stream<String[]> records, CsvReaderOptionsImpl options)
+    {
+        Stream<String[]> result = records;
+        if (options.getSkip() > 0)
+        {
+            result = result.skip(options.getSkip());
+        }
+        if (options.getLimit() < Long.MAX_VALUE)
+        {
+            result = result.limit(options.getLimit());
+        }
+        if (options.getSampleSize() != null)
+        {
+            int sampleSize = options.getSampleSize();
+            Random random = options.getSamplingSeed() != null ? new Random(options.getSamplingSeed()) : new Random();
+            Stream<String[]> sampledRecords = result;
+            result = Stream.of(sampledRecords)
+                           .flatMap(stream -> drawSample(stream.iterator(), sampleSize, random).stream())
+                           .onClose(sampledRecords::close);
+        }
+        return result;
+    }
+
+    /**
+     * Draws a uniformly random sample by reservoir sampling, which holds at most the given sample size of records, and returns it in the original order of
+     * the records
+     * 
+     * @param records
+     * @param sampleSize
+     * @param random
+     * @return
+     */
+    private static List<String[]> drawSample(Iterator<String[]> records, int sampleSize, Random random)
+    {
+        String[][] reservoir = new String[sampleSize][];
+        long[] positions = new long[sampleSize];
+        long position = 0;
+        for (; records.hasNext(); position++)
+        {
+            String[] record = records.next();
+            long slot = position < sampleSize ? position : random.nextLong(position + 1);
+            if (slot < sampleSize)
+            {
+                reservoir[(int) slot] = record;
+                positions[(int) slot] = position;
+            }
+        }
+        return IntStream.range(0, (int) Math.min(position, sampleSize))
+                        .boxed()
+                        .sorted(Comparator.comparingLong(slot -> positions[slot]))
+                        .map(slot -> reservoir[slot])
+                        .toList();
+    }
+}
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import org.apache.commons.csv.CSVFormat;
+
+/**
+ * {@link CsvRecordReader} which splits the characters of a {@link Reader} into values itself. In contrast to a {@link org.apache.commons.csv.CSVParser}
+ * the characters of values which are not selected are skipped without creating a {@link String}.<br>
+ * <br>
+ * Supports the delimiter, the quote character, which is escaped by doubling it, and the empty line handling of a {@link CSVFormat}. Formats with further
+ * options like an escape character or a comment marker are not supported, see {@link #supports(CSVFormat)}.
+ */
+class CsvTokenizer implements CsvRecordReader
+{
+    private static final int BUFFER_SIZE  = 1 << 16;
+    private static final int END_OF_INPUT = -1;
+    private static final int NO_QUOTE     = -2;
+
+    private final Reader        reader;
+    private final char          delimiter;
+    private final int           quoteCharacter;
+    private final boolean       ignoreEmptyLines;
+    private final char[]        buffer           = new char[BUFFER_SIZE];
+    private int                 position         = 0;
+    private int                 limit            = 0;
+    private final StringBuilder value            = new StringBuilder();
+    private String[]            values           = new String[16];
+    private boolean             literalQuoteRead = false;
+
+    public CsvTokenizer(Reader reader, CSVFormat csvFormat)
+    {
+        super();
+        this.reader = reader;
+        this.delimiter = csvFormat.getDelimiterString()
+                                  .charAt(0);
+        this.quoteCharacter = csvFormat.isQuoteCharacterSet() ? csvFormat.getQuoteCharacter() : NO_QUOTE;
+        this.ignoreEmptyLines = csvFormat.getIgnoreEmptyLines();
+    }
+
+    public static boolean supports(CSVFormat csvFormat)
+    {
+        return csvFormat.getDelimiterString()
+                        .length() == 1
+                && !csvFormat.isEscapeCharacterSet() && !csvFormat.isCommentMarkerSet() && !csvFormat.getTrim() && !csvFormat.getIgnoreSurroundingSpaces()
+                && csvFormat.getNullString() == null;
+    }
+
+    @Override
+    public String[] next(boolean[] selection) throws IOException
+    {
+        int character = this.peek();
+        while (this.ignoreEmptyLines && (character == '\r' || character == '\n'))
+        {
+            this.position++;
+            character = this.peek();
+        }
+        if (character == END_OF_INPUT)
+        {
+            return null;
+        }
+
+        int numberOfValues = 0;
+        boolean endOfRecord = false;
+        while (!endOfRecord)
+        {
+            boolean selected = selection == null || (numberOfValues < selection.length && selection[numberOfValues]);
+            endOfRecord = this.readValue(selected);
+            if (numberOfValues == this.values.length)
+            {
+                this.values = Arrays.copyOf(this.values, numberOfValues * 2);
+            }
+            this.values[numberOfValues++] = selected ? this.value.toString() : null;
+        }
+        return Arrays.copyOf(this.values, numberOfValues);
+    }
+
+    /**
+     * Reads a single value into {@link #value}, if it is selected, and consumes its terminating delimiter or line break
+     * 
+     * @param selected
+     * @return true, if the value is the last one of its record
+     * @throws IOException
+     */
+    private boolean readValue(boolean selected) throws IOException
+    {
+        this.value.setLength(0);
+        int character = this.read();
+        if (character == this.quoteCharacter)
+        {
+            while (true)
+            {
+                character = this.read();
+                if (character == END_OF_INPUT)
+                {
+                    throw new IOException("End of input reached within a quoted value");
+                }
+                if (character == this.quoteCharacter)
+                {
+                    character = this.read();
+                    if (character != this.quoteCharacter)
+                    {
+                        break;
+                    }
+                }
+                if (selected)
+                {
+                    this.value.append((char) character);
+                }
+            }
+            while (character != this.delimiter && character != '\r' && character != '\n' && character != END_OF_INPUT && Character.isWhitespace(character))
+            {
+                // whitespaces between the closing quote and the delimiter are ignored like by the CSVParser
+                character = this.read();
+            }
+            if (character != this.delimiter && character != '\r' && character != '\n' && character != END_OF_INPUT)
+            {
+                throw new IOException("Invalid character between a quoted value and the delimiter: " + (char) character);
+            }
+        }
+        else
+        {
+            while (character != this.delimiter && character != '\r' && character != '\n' && character != END_OF_INPUT)
+            {
+                if (character == this.quoteCharacter)
+                {
+                    this.literalQuoteRead = true;
+                }
+                if (selected)
+                {
+                    this.value.append((char) character);
+                }
+                character = this.read();
+            }
+        }
+
+        if (character == '\r' && this.peek() == '\n')
+        {
+            this.position++;
+        }
+        return character != this.delimiter;
+    }
+
+    /**
+     * Returns true, if a quote character has been read within a value which does not start with a quote character. Such a quote character is taken
+     * literally like by the {@link org.apache.commons.csv.CSVParser}, so it does not open or close a quoted value.
+     * 
+     * @return
+     */
+    public boolean hasReadLiteralQuote()
+    {
+        return this.literalQuoteRead;
+    }
+
+    private int read() throws IOException
+    {
+        int character = this.peek();
+        if (character != END_OF_INPUT)
+        {
+            this.position++;
+        }
+        return character;
+    }
+
+    private int peek() throws IOException
+    {
+        if (this.position == this.limit)
+        {
+            this.limit = Math.max(0, this.reader.read(this.buffer));
+            this.position = 0;
+            if (this.limit == 0)
+            {
+                return END_OF_INPUT;
+            }
+        }
+        return this.buffer[this.position];
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.reader.close();
+    }
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.function.Consumer;
+
+import org.apache.commons.csv.CSVFormat;
+import org.omnaest.utils.table.components.TableSerializer.CsvWriterOptions;
+
+import lombok.Getter;
+
+class CsvWriterOptionsImpl implements CsvWriterOptions
+{
+    @Getter
+    private CSVFormat csvFormat = TableSerializerImpl.DEFAULT_CSV_FORMAT;
+
+    @Override
+    public CsvWriterOptions withDelimiter(char delimiter)
+    {
+        this.csvFormat = this.csvFormat.withDelimiter(delimiter);
+        return this;
+    }
+
+    public static CsvWriterOptionsImpl newInstanceAndAccept(Consumer<CsvWriterOptions> csvWriterOptionsConsumer)
+    {
+        CsvWriterOptionsImpl instance = new CsvWriterOptionsImpl();
+
+        if (csvWriterOptionsConsumer != null)
+        {
+            csvWriterOptionsConsumer.accept(instance);
+        }
+
+        return instance;
+    }
+}
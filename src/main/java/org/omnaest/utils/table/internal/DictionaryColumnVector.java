@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ColumnVector} which stores an int code per row referring to a dictionary of the distinct values. Equal values share a single {@link String}
+ * instance.<br>
+ * <br>
+ * If the column turns out to have too many distinct values, the vector switches over to a {@link StringColumnVector}.
+ */
+class DictionaryColumnVector implements ColumnVector, DictionaryEncodedColumn
+{
+    private static final int INITIAL_CAPACITY                  = 16;
+    private static final int MAXIMUM_DICTIONARY_SIZE           = 1 << 16;
+    private static final int MINIMUM_DICTIONARY_SIZE_FOR_RATIO = 1 << 10;
+
+    private int[]                codes       = new int[INITIAL_CAPACITY];
+    private int                  size        = 0;
+    private List<String>         dictionary  = new ArrayList<>();
+    private Map<String, Integer> valueToCode = new HashMap<>();
+
+    public DictionaryColumnVector()
+    {
+        super();
+        this.dictionary.add(null);
+    }
+
+    DictionaryColumnVector(int[] codes, int size, List<String> dictionary, Map<String, Integer> valueToCode)
+    {
+        super();
+        this.codes = codes;
+        this.size = size;
+        this.dictionary = dictionary;
+        this.valueToCode = valueToCode;
+    }
+
+    @Override
+    public String get(int rowIndex)
+    {
+        return this.getValue(this.getCode(rowIndex));
+    }
+
+    @Override
+    public ColumnVector set(int rowIndex, String value)
+    {
+        int code = this.getCode(value);
+        if (code < 0)
+        {
+            if (this.isDictionaryExhausted())
+            {
+                return this.toStringColumnVector()
+                           .set(rowIndex, value);
+            }
+
+            code = this.dictionary.size();
+            this.dictionary.add(value);
+            this.valueToCode.put(value, code);
+        }
+
+        if (rowIndex >= this.codes.length)
+        {
+            if (code == NULL_CODE)
+            {
+                // not yet allocated cells are null already
+                return this;
+            }
+            this.codes = Arrays.copyOf(this.codes, Math.max(rowIndex + 1, this.codes.length * 2));
+        }
+        this.codes[rowIndex] = code;
+        this.size = Math.max(this.size, rowIndex + 1);
+        return this;
+    }
+
+    /**
+     * Returns true, if the dictionary would not pay off anymore, because either the number of distinct values is too large or most values are distinct
+     * 
+     * @return
+     */
+    private boolean isDictionaryExhausted()
+    {
+        int dictionarySize = this.dictionary.size();
+        return dictionarySize >= MAXIMUM_DICTIONARY_SIZE || (dictionarySize >= MINIMUM_DICTIONARY_SIZE_FOR_RATIO && dictionarySize * 2 > this.size);
+    }
+
+    private StringColumnVector toStringColumnVector()
+    {
+        String[] values = new String[Math.max(this.size, INITIAL_CAPACITY)];
+        this.copyInto(values);
+        return new StringColumnVector(values);
+    }
+
+    @Override
+    public void copyInto(String[] values)
+    {
+        int length = Math.min(this.codes.length, values.length);
+        for (int ii = 0; ii < length; ii++)
+        {
+            values[ii] = this.dictionary.get(this.codes[ii]);
+        }
+    }
+
+    @Override
+    public boolean containsValue(String value, int numberOfRows)
+    {
+        int code = this.getCode(value);
+        if (code < 0)
+        {
+            return false;
+        }
+        for (int ii = 0; ii < numberOfRows; ii++)
+        {
+            if (this.getCode(ii) == code)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ColumnVector copy()
+    {
+        return new DictionaryColumnVector(this.codes.clone(), this.size, new ArrayList<>(this.dictionary), new HashMap<>(this.valueToCode));
+    }
+
+    @Override
+    public void ensureCapacity(int numberOfRows)
+    {
+        if (numberOfRows > this.codes.length)
+        {
+            this.codes = Arrays.copyOf(this.codes, numberOfRows);
+        }
+    }
+
+    @Override
+    public void trimToSize(int numberOfRows)
+    {
+        if (numberOfRows < this.codes.length)
+        {
+            this.codes = Arrays.copyOf(this.codes, numberOfRows);
+        }
+    }
+
+    /**
+     * Returns a {@link RunLengthColumnVector} or {@link BitPackedColumnVector} depending on which of both needs less memory for the current codes
+     */
+    @Override
+    public ColumnVector compact()
+    {
+        if (this.size == 0)
+        {
+            return this;
+        }
+
+        int bitsPerCode = BitPackedColumnVector.determineBitsPerCode(this.dictionary.size());
+        int numberOfRuns = RunLengthColumnVector.countRuns(this.codes, this.size);
+        if ((long) numberOfRuns * 2 * Integer.SIZE <= (long) this.size * bitsPerCode)
+        {
+            return new RunLengthColumnVector(this.codes, this.size, numberOfRuns, this.dictionary, this.valueToCode);
+        }
+        else
+        {
+            return new BitPackedColumnVector(this.codes, this.size, bitsPerCode, this.dictionary, this.valueToCode);
+        }
+    }
+
+    @Override
+    public void accumulateMemoryUsage(int columnIndex, int numberOfRows, MemoryUsage memoryUsage)
+    {
+        memoryUsage.addColumnBytes(columnIndex, MemoryUsage.sizeOfObject(3 * MemoryUsage.REFERENCE + Integer.BYTES))
+                   .addColumnBytes(columnIndex, MemoryUsage.sizeOfArray(this.codes.length, Integer.BYTES))
+                   .addCapacity(Math.min(this.codes.length, numberOfRows), this.codes.length);
+        accumulateDictionaryMemoryUsage(columnIndex, this.dictionary, memoryUsage);
+    }
+
+    /**
+     * Adds the estimated heap memory usage of the given dictionary and its reverse lookup map to the given column of the {@link MemoryUsage}
+     * 
+     * @param columnIndex
+     * @param dictionary
+     * @param memoryUsage
+     */
+    static void accumulateDictionaryMemoryUsage(int columnIndex, List<String> dictionary, MemoryUsage memoryUsage)
+    {
+        memoryUsage.addColumnBytes(columnIndex, MemoryUsage.sizeOfArrayList(dictionary.size()))
+                   .addColumnBytes(columnIndex, MemoryUsage.sizeOfHashMap(dictionary.size() - 1))
+                   .addColumnBytes(columnIndex, (long) (dictionary.size() - 1) * MemoryUsage.sizeOfObject(Integer.BYTES));
+        for (String value : dictionary)
+        {
+            memoryUsage.addColumnValue(columnIndex, value);
+        }
+    }
+
+    @Override
+    public int getCode(int rowIndex)
+    {
+        return rowIndex < this.codes.length ? this.codes[rowIndex] : NULL_CODE;
+    }
+
+    @Override
+    public int getCode(String value)
+    {
+        return value == null ? NULL_CODE : this.valueToCode.getOrDefault(value, -1);
+    }
+
+    @Override
+    public String getValue(int code)
+    {
+        return this.dictionary.get(code);
+    }
+
+    @Override
+    public int getDictionarySize()
+    {
+        return this.dictionary.size();
+    }
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+/**
+ * Column of a {@link TableStorage} which is encoded as int codes referring to a dictionary of the distinct values of the column. The code
+ * {@value #NULL_CODE} always represents a null value.
+ */
+public interface DictionaryEncodedColumn
+{
+    public static final int NULL_CODE = 0;
+
+    /**
+     * Returns the code of the value at the given row index
+     * 
+     * @param rowIndex
+     * @return
+     */
+    public int getCode(int rowIndex);
+
+    /**
+     * Returns the code of the given value or -1, if the value is not part of the dictionary
+     * 
+     * @param value
+     * @return
+     */
+    public int getCode(String value);
+
+    /**
+     * Returns the value of the given code
+     * 
+     * @param code
+     * @return
+     */
+    public String getValue(int code);
+
+    /**
+     * Returns the number of codes including the {@link #NULL_CODE}
+     * 
+     * @return
+     */
+    public int getDictionarySize();
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+
+import org.omnaest.utils.table.domain.ColumnType;
+
+/**
+ * {@link PrimitiveColumnVector} for {@link ColumnType#DOUBLE}. Like a parsed {@link String} value, a value which is not integral or out of range is
+ * returned as 0 by {@link #getInt(int)} and {@link #getLong(int)}.
+ */
+class DoubleColumnVector extends PrimitiveColumnVector
+{
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    @Override
+    public ColumnType getColumnType()
+    {
+        return ColumnType.DOUBLE;
+    }
+
+    @Override
+    protected void resize(int capacity)
+    {
+        this.values = Arrays.copyOf(this.values, capacity);
+    }
+
+    @Override
+    protected int getCapacity()
+    {
+        return this.values.length;
+    }
+
+    @Override
+    protected int getBytesPerValue()
+    {
+        return Double.BYTES;
+    }
+
+    @Override
+    protected String format(int rowIndex)
+    {
+        return String.valueOf(this.values[rowIndex]);
+    }
+
+    @Override
+    protected boolean parseAndSet(int rowIndex, String value)
+    {
+        try
+        {
+            this.setRaw(rowIndex, Double.parseDouble(value));
+            return true;
+        }
+        catch (NumberFormatException e)
+        {
+            return false;
+        }
+    }
+
+    private void setRaw(int rowIndex, double value)
+    {
+        if (rowIndex >= this.values.length)
+        {
+            this.values = Arrays.copyOf(this.values, determineNewCapacity(this.values.length, rowIndex));
+        }
+        this.values[rowIndex] = value;
+    }
+
+    private double getRaw(int rowIndex)
+    {
+        return this.isNull(rowIndex) ? 0 : this.values[rowIndex];
+    }
+
+    @Override
+    public int getInt(int rowIndex)
+    {
+        double value = this.getRaw(rowIndex);
+        return value == Math.rint(value) && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : 0;
+    }
+
+    @Override
+    public long getLong(int rowIndex)
+    {
+        double value = this.getRaw(rowIndex);
+        return value == Math.rint(value) && value >= Long.MIN_VALUE && value < Long.MAX_VALUE ? (long) value : 0L;
+    }
+
+    @Override
+    public double getDouble(int rowIndex)
+    {
+        return this.getRaw(rowIndex);
+    }
+}
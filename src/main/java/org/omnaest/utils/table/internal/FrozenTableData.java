@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable row oriented {@link TableStorage}. It is either the copy on write snapshot of a {@link TableData}, which shares its chunks of rows, or a
+ * compact copy of any other {@link TableStorage} created by {@link #of(TableStorage)}.<br>
+ * <br>
+ * All fields are final and the shared rows are never written again, so the storage can be shared with other threads without any synchronization. The
+ * hash code is computed once on first use.
+ * 
+ * @see ArrayTable#snapshot()
+ */
+public class FrozenTableData implements TableStorage
+{
+    private static final int CHUNK_SIZE_BITS                 = TableData.CHUNK_SIZE_BITS;
+    private static final int CHUNK_SIZE                      = TableData.CHUNK_SIZE;
+    private static final int CHUNK_SIZE_MASK                 = CHUNK_SIZE - 1;
+    private static final int MAXIMUM_NUMBER_OF_SHARED_VALUES = 1 << 16;
+
+    private final String[][][] chunks;
+    private final int          numberOfRows;
+    private final int          numberOfColumns;
+    private int                hashCode;
+
+    FrozenTableData(String[][][] chunks, int numberOfRows, int numberOfColumns)
+    {
+        super();
+        this.chunks = chunks;
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+    }
+
+    /**
+     * Returns an immutable copy of the current values of the given {@link TableStorage}. Every row is trimmed to its last non null value and equal values
+     * within a column share a single {@link String} instance.
+     * 
+     * @param data
+     * @return
+     */
+    public static FrozenTableData of(TableStorage data)
+    {
+        int numberOfRows = data.getRowSize();
+        int numberOfColumns = data.getColumnSize();
+        String[][][] chunks = new String[(numberOfRows + CHUNK_SIZE - 1) >>> CHUNK_SIZE_BITS][][];
+
+        @SuppressWarnings("unchecked")
+        Map<String, String>[] sharedValues = new Map[numberOfColumns];
+        for (int rowIndex = 0; rowIndex < numberOfRows; rowIndex++)
+        {
+            int chunkIndex = rowIndex >>> CHUNK_SIZE_BITS;
+            if (chunks[chunkIndex] == null)
+            {
+                chunks[chunkIndex] = new String[Math.min(CHUNK_SIZE, numberOfRows - (chunkIndex << CHUNK_SIZE_BITS))][];
+            }
+
+            String[] row = data.getRow(rowIndex);
+            int length = row.length;
+            while (length > 0 && row[length - 1] == null)
+            {
+                length--;
+            }
+            if (length == 0)
+            {
+                // empty rows stay unallocated
+                continue;
+            }
+
+            row = length == row.length ? row : Arrays.copyOf(row, length);
+            for (int columnIndex = 0; columnIndex < length; columnIndex++)
+            {
+                if (row[columnIndex] != null)
+                {
+                    if (sharedValues[columnIndex] == null)
+                    {
+                        sharedValues[columnIndex] = new HashMap<>();
+                    }
+                    if (sharedValues[columnIndex].size() < MAXIMUM_NUMBER_OF_SHARED_VALUES)
+                    {
+                        row[columnIndex] = sharedValues[columnIndex].computeIfAbsent(row[columnIndex], value -> value);
+                    }
+                }
+            }
+            chunks[chunkIndex][rowIndex & CHUNK_SIZE_MASK] = row;
+        }
+        return new FrozenTableData(chunks, numberOfRows, numberOfColumns);
+    }
+
+    @Override
+    public String get(int rowIndex, int columnIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+        if (columnIndex < 0 || columnIndex >= this.numberOfColumns)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+        String[] row = this.getRawRow(rowIndex);
+        return row != null && columnIndex < row.length ? row[columnIndex] : null;
+    }
+
+    private String[] getRawRow(int rowIndex)
+    {
+        int chunkIndex = rowIndex >>> CHUNK_SIZE_BITS;
+        return chunkIndex < this.chunks.length ? this.chunks[chunkIndex][rowIndex & CHUNK_SIZE_MASK] : null;
+    }
+
+    private void validateIndexOutOfBoundsForRow(int rowIndex)
+    {
+        if (rowIndex < 0 || rowIndex >= this.numberOfRows)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public void set(int rowIndex, int columnIndex, String value)
+    {
+        throw new UnsupportedOperationException("Frozen table data is read only");
+    }
+
+    @Override
+    public int getRowSize()
+    {
+        return this.numberOfRows;
+    }
+
+    @Override
+    public int getColumnSize()
+    {
+        return this.numberOfColumns;
+    }
+
+    @Override
+    public void setRowSize(int rowSize)
+    {
+        throw new UnsupportedOperationException("Frozen table data is read only");
+    }
+
+    @Override
+    public TableStorage snapshot()
+    {
+        return this;
+    }
+
+    @Override
+    public void accumulateMemoryUsage(MemoryUsage memoryUsage)
+    {
+        memoryUsage.addOverhead(MemoryUsage.sizeOfObject(MemoryUsage.REFERENCE + 3 * Integer.BYTES))
+                   .addOverhead(MemoryUsage.sizeOfArray(this.chunks.length, MemoryUsage.REFERENCE));
+        for (String[][] chunk : this.chunks)
+        {
+            memoryUsage.addOverhead(MemoryUsage.sizeOfArray(chunk.length, MemoryUsage.REFERENCE));
+        }
+        for (int rowIndex = 0; rowIndex < this.numberOfRows; rowIndex++)
+        {
+            String[] row = this.getRawRow(rowIndex);
+            if (row != null)
+            {
+                int usedCapacity = Math.min(row.length, this.numberOfColumns);
+                memoryUsage.addOverhead(MemoryUsage.sizeOfArray(row.length, MemoryUsage.REFERENCE) - (long) usedCapacity * MemoryUsage.REFERENCE)
+                           .addCapacity(usedCapacity, row.length);
+                for (int columnIndex = 0; columnIndex < usedCapacity; columnIndex++)
+                {
+                    memoryUsage.addColumnBytes(columnIndex, MemoryUsage.REFERENCE)
+                               .addColumnValue(columnIndex, row[columnIndex]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String[] getRow(int rowIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+
+        String[] result = new String[this.numberOfColumns];
+        String[] row = this.getRawRow(rowIndex);
+        if (row != null)
+        {
+            System.arraycopy(row, 0, result, 0, Math.min(row.length, result.length));
+        }
+        return result;
+    }
+
+    @Override
+    public String[] getColumn(int columnIndex)
+    {
+        if (columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        String[] result = new String[this.numberOfRows];
+        if (columnIndex < this.numberOfColumns)
+        {
+            for (int rowIndex = 0; rowIndex < result.length; rowIndex++)
+            {
+                String[] row = this.getRawRow(rowIndex);
+                result[rowIndex] = row != null && columnIndex < row.length ? row[columnIndex] : null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the hash code once, a concurrent first use may compute the same value twice
+     */
+    @Override
+    public int hashCode()
+    {
+        int result = this.hashCode;
+        if (result == 0)
+        {
+            result = TableStorage.contentHashCode(this);
+            this.hashCode = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof TableStorage))
+        {
+            return false;
+        }
+        return TableStorage.contentEquals(this, (TableStorage) obj);
+    }
+}
@@ -16,6 +16,7 @@
 package org.omnaest.utils.table.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -24,27 +25,58 @@ import java.util.Optional;
 
 public class KeyIndex
 {
-    private List<String>         keys           = new ArrayList<>();
-    private Map<String, Integer> keyIndex       = new HashMap<>();
-    private int                  maxColumnIndex = -1;
+    private ArrayList<String>    keys                = new ArrayList<>();
+    private Map<String, Integer> keyIndex            = new HashMap<>();
+    private Map<String, Integer> firstDuplicateIndex = Collections.emptyMap();
+    private int                  maxColumnIndex      = -1;
 
     public KeyIndex addKey(String key)
     {
         this.keys.add(key);
-        this.rebuildIndex();
+        Integer previousIndex = this.keyIndex.put(key, this.keys.size() - 1);
+        if (previousIndex != null && !this.firstDuplicateIndex.containsKey(key))
+        {
+            if (this.firstDuplicateIndex.isEmpty())
+            {
+                this.firstDuplicateIndex = new HashMap<>();
+            }
+            this.firstDuplicateIndex.put(key, previousIndex);
+        }
+        this.maxColumnIndex = Math.max(this.maxColumnIndex, this.keys.size() - 1);
         return this;
     }
 
-    private void rebuildIndex()
+    /**
+     * Adds all given keys in order. The storage for the new keys is reserved once upfront.
+     * 
+     * @param keys
+     * @return
+     */
+    public KeyIndex addKeys(Collection<String> keys)
     {
-        this.keyIndex.clear();
-        int index = 0;
-        for (String key : this.keys)
+        int size = this.keys.size() + keys.size();
+        this.keys.ensureCapacity(size);
+        if (this.keyIndex.isEmpty())
         {
-            this.keyIndex.put(key, index);
-            index++;
+            this.keyIndex = new HashMap<>((int) (size / 0.75f) + 1);
         }
-        this.maxColumnIndex = Math.max(this.maxColumnIndex, this.keys.size() - 1);
+        keys.forEach(this::addKey);
+        return this;
+    }
+
+    /**
+     * Returns an independent copy of this {@link KeyIndex} without any reserved capacity
+     * 
+     * @return
+     */
+    public KeyIndex copy()
+    {
+        KeyIndex result = new KeyIndex();
+        result.keys = new ArrayList<>(this.keys);
+        result.keyIndex = new HashMap<>(this.keyIndex);
+        result.firstDuplicateIndex = this.firstDuplicateIndex.isEmpty() ? Collections.emptyMap() : new HashMap<>(this.firstDuplicateIndex);
+        result.maxColumnIndex = this.maxColumnIndex;
+        return result;
     }
 
     public Optional<Integer> getIndexAsOptional(String key)
@@ -56,6 +88,30 @@ public class KeyIndex
         return Optional.of(this.keyIndex.get(key));
     }
 
+    /**
+     * Returns the index of the given key or -1, if the key is unknown. In contrast to {@link #getIndexAsOptional(String)} this does not allocate any object.
+     * 
+     * @param key
+     * @return
+     */
+    public int indexOf(String key)
+    {
+        Integer index = this.keyIndex.get(key);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Similar to {@link #indexOf(String)} but returns the index of the first occurrence of a key which has been added multiple times
+     * 
+     * @param key
+     * @return
+     */
+    public int firstIndexOf(String key)
+    {
+        Integer index = this.firstDuplicateIndex.get(key);
+        return index != null ? index : this.indexOf(key);
+    }
+
     public int getIndex(String key)
     {
         return this.getIndexAsOptional(key)
@@ -100,6 +156,19 @@ public class KeyIndex
         this.maxColumnIndex = Math.max(this.maxColumnIndex, columnIndex);
     }
 
+    public void accumulateMemoryUsage(MemoryUsage memoryUsage)
+    {
+        memoryUsage.addOverhead(MemoryUsage.sizeOfObject(3 * MemoryUsage.REFERENCE + Integer.BYTES))
+                   .addOverhead(MemoryUsage.sizeOfArrayList(this.keys.size()))
+                   .addOverhead(MemoryUsage.sizeOfHashMap(this.keyIndex.size()))
+                   .addOverhead(this.keyIndex.size() * MemoryUsage.sizeOfObject(Integer.BYTES));
+        if (!this.firstDuplicateIndex.isEmpty())
+        {
+            memoryUsage.addOverhead(MemoryUsage.sizeOfHashMap(this.firstDuplicateIndex.size()));
+        }
+        this.keys.forEach(memoryUsage::addOverheadValue);
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+
+import org.omnaest.utils.table.domain.ColumnType;
+
+/**
+ * {@link PrimitiveColumnVector} for {@link ColumnType#LONG}
+ */
+class LongColumnVector extends PrimitiveColumnVector
+{
+    private long[] values = new long[INITIAL_CAPACITY];
+
+    @Override
+    public ColumnType getColumnType()
+    {
+        return ColumnType.LONG;
+    }
+
+    @Override
+    protected void resize(int capacity)
+    {
+        this.values = Arrays.copyOf(this.values, capacity);
+    }
+
+    @Override
+    protected int getCapacity()
+    {
+        return this.values.length;
+    }
+
+    @Override
+    protected int getBytesPerValue()
+    {
+        return Long.BYTES;
+    }
+
+    @Override
+    protected String format(int rowIndex)
+    {
+        return String.valueOf(this.values[rowIndex]);
+    }
+
+    @Override
+    protected boolean parseAndSet(int rowIndex, String value)
+    {
+        try
+        {
+            this.setRaw(rowIndex, Long.parseLong(value));
+            return true;
+        }
+        catch (NumberFormatException e)
+        {
+            return false;
+        }
+    }
+
+    private void setRaw(int rowIndex, long value)
+    {
+        if (rowIndex >= this.values.length)
+        {
+            this.values = Arrays.copyOf(this.values, determineNewCapacity(this.values.length, rowIndex));
+        }
+        this.values[rowIndex] = value;
+    }
+
+    private long getRaw(int rowIndex)
+    {
+        return this.isNull(rowIndex) ? 0 : this.values[rowIndex];
+    }
+
+    @Override
+    public int getInt(int rowIndex)
+    {
+        long value = this.getRaw(rowIndex);
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : 0;
+    }
+
+    @Override
+    public long getLong(int rowIndex)
+    {
+        return this.getRaw(rowIndex);
+    }
+
+    @Override
+    public double getDouble(int rowIndex)
+    {
+        return this.getRaw(rowIndex);
+    }
+}
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.omnaest.utils.exception.RuntimeIOException;
+import org.omnaest.utils.table.ImmutableTable;
+import org.omnaest.utils.table.domain.Row;
+
+/**
+ * Read only {@link TableStorage} on top of a memory mapped file written by {@link #write(ImmutableTable, File)}. The file consists of a header with the
+ * dimensions and column titles, an index with the offset and length of every cell and the UTF-8 bytes of all values. Only the index entry and the bytes of a
+ * requested cell are read, so a table larger than the java heap can be opened without loading it.<br>
+ * <br>
+ * Files larger than 1 GB are mapped in multiple windows, since a single {@link MappedByteBuffer} can not span more than {@link Integer#MAX_VALUE} bytes.
+ * 
+ * @see ImmutableTable#newMappedInstance(File)
+ */
+public class MappedTableData implements TableStorage
+{
+    private static final int  MAGIC            = 0x4f54424c;
+    private static final int  VERSION          = 1;
+    private static final int  HEADER_SIZE      = 5 * Integer.BYTES;
+    private static final int  INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int  WINDOW_BITS      = 30;
+    private static final long WINDOW_SIZE      = 1L << WINDOW_BITS;
+
+    private final ByteBuffer[] windows;
+    private final int          numberOfRows;
+    private final int          numberOfColumns;
+    private final List<String> columnTitles    = new ArrayList<>();
+    private final long         indexPosition;
+    private final long         dataPosition;
+
+    private MappedTableData(ByteBuffer[] windows, long size)
+    {
+        this.windows = windows;
+        if (size < HEADER_SIZE || this.readInt(0) != MAGIC)
+        {
+            throw new IllegalArgumentException("File does not contain an indexed binary table");
+        }
+        if (this.readInt(Integer.BYTES) != VERSION)
+        {
+            throw new IllegalArgumentException("Unsupported indexed binary table version: " + this.readInt(Integer.BYTES));
+        }
+
+        this.numberOfRows = this.readInt(2 * Integer.BYTES);
+        this.numberOfColumns = this.readInt(3 * Integer.BYTES);
+        int numberOfTitles = this.readInt(4 * Integer.BYTES);
+
+        long position = HEADER_SIZE;
+        for (int ii = 0; ii < numberOfTitles; ii++)
+        {
+            int length = this.readInt(position);
+            position += Integer.BYTES;
+            this.columnTitles.add(length < 0 ? null : this.readString(position, length));
+            position += Math.max(0, length);
+        }
+
+        this.indexPosition = position;
+        this.dataPosition = position + (long) this.numberOfRows * this.numberOfColumns * INDEX_ENTRY_SIZE;
+    }
+
+    /**
+     * Opens the given file written by {@link #write(ImmutableTable, File)} as read only {@link ImmutableTable}
+     * 
+     * @throws RuntimeIOException
+     * @throws IllegalArgumentException
+     *             if the file does not contain an indexed binary table
+     * @param file
+     * @return
+     */
+    public static ImmutableTable open(File file)
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            ByteBuffer[] windows = new ByteBuffer[(int) ((size + WINDOW_SIZE - 1) >>> WINDOW_BITS)];
+            for (int ii = 0; ii < windows.length; ii++)
+            {
+                long position = ii * WINDOW_SIZE;
+                windows[ii] = channel.map(MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+            }
+
+            MappedTableData data = new MappedTableData(windows, size);
+            ArrayTable table = new ArrayTable(data);
+            table.addColumnTitles(data.columnTitles);
+            return new ReadOnlyTable(table);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeIOException(e);
+        }
+    }
+
+    /**
+     * Writes the given {@link ImmutableTable} into the given file in the format read by {@link #open(File)}. The table is traversed twice, first to write
+     * the index and second to write the values, so no value has to be kept in memory.
+     * 
+     * @throws RuntimeIOException
+     * @param table
+     * @param file
+     */
+    public static void write(ImmutableTable table, File file)
+    {
+        List<String> columnTitles = table.getColumnTitles();
+        int numberOfRows = table.getRowSize();
+        int numberOfColumns = table.getEffectiveColumns()
+                                   .size();
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(numberOfRows);
+            output.writeInt(numberOfColumns);
+            output.writeInt(columnTitles.size());
+            for (String columnTitle : columnTitles)
+            {
+                writeValue(output, columnTitle);
+            }
+
+            long offset = 0;
+            for (int rowIndex = 0; rowIndex < numberOfRows; rowIndex++)
+            {
+                Row row = table.getRow(rowIndex);
+                for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++)
+                {
+                    String value = row.getValue(columnIndex);
+                    int length = value != null ? determineUtf8Length(value) : -1;
+                    output.writeLong(offset);
+                    output.writeInt(length);
+                    offset += Math.max(0, length);
+                }
+            }
+
+            for (int rowIndex = 0; rowIndex < numberOfRows; rowIndex++)
+            {
+                Row row = table.getRow(rowIndex);
+                for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++)
+                {
+                    String value = row.getValue(columnIndex);
+                    if (value != null)
+                    {
+                        output.write(value.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeIOException(e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream output, String value) throws IOException
+    {
+        if (value == null)
+        {
+            output.writeInt(-1);
+        }
+        else
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Determines the number of bytes {@link String#getBytes(java.nio.charset.Charset)} produces for {@link StandardCharsets#UTF_8} without encoding the value
+     * 
+     * @param value
+     * @return
+     */
+    private static int determineUtf8Length(String value)
+    {
+        int result = 0;
+        for (int ii = 0; ii < value.length(); ii++)
+        {
+            char character = value.charAt(ii);
+            if (character < 0x80)
+            {
+                result += 1;
+            }
+            else if (character < 0x800)
+            {
+                result += 2;
+            }
+            else if (Character.isHighSurrogate(character) && ii + 1 < value.length() && Character.isLowSurrogate(value.charAt(ii + 1)))
+            {
+                result += 4;
+                ii++;
+            }
+            else if (Character.isSurrogate(character))
+            {
+                // unpaired surrogates are replaced by '?'
+                result += 1;
+            }
+            else
+            {
+                result += 3;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String get(int rowIndex, int columnIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+        this.validateIndexOutOfBoundsForColumn(columnIndex);
+
+        long entryPosition = this.indexPosition + ((long) rowIndex * this.numberOfColumns + columnIndex) * INDEX_ENTRY_SIZE;
+        int length = this.readInt(entryPosition + Long.BYTES);
+        if (length < 0)
+        {
+            return null;
+        }
+        return this.readString(this.dataPosition + this.readLong(entryPosition), length);
+    }
+
+    private void validateIndexOutOfBoundsForRow(int rowIndex)
+    {
+        if (rowIndex < 0 || rowIndex >= this.numberOfRows)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void validateIndexOutOfBoundsForColumn(int columnIndex)
+    {
+        if (columnIndex < 0 || columnIndex >= this.numberOfColumns)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private int readInt(long position)
+    {
+        ByteBuffer window = this.windows[(int) (position >>> WINDOW_BITS)];
+        int offset = (int) (position & (WINDOW_SIZE - 1));
+        return offset + Integer.BYTES <= window.limit() ? window.getInt(offset) : ByteBuffer.wrap(this.readBytes(position, Integer.BYTES))
+                                                                                            .getInt();
+    }
+
+    private long readLong(long position)
+    {
+        ByteBuffer window = this.windows[(int) (position >>> WINDOW_BITS)];
+        int offset = (int) (position & (WINDOW_SIZE - 1));
+        return offset + Long.BYTES <= window.limit() ? window.getLong(offset) : ByteBuffer.wrap(this.readBytes(position, Long.BYTES))
+                                                                                          .getLong();
+    }
+
+    private String readString(long position, int length)
+    {
+        return new String(this.readBytes(position, length), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes(long position, int length)
+    {
+        byte[] result = new byte[length];
+        int read = 0;
+        while (read < length)
+        {
+            long current = position + read;
+            ByteBuffer window = this.windows[(int) (current >>> WINDOW_BITS)];
+            int offset = (int) (current & (WINDOW_SIZE - 1));
+            int chunk = Math.min(length - read, window.limit() - offset);
+            window.get(offset, result, read, chunk);
+            read += chunk;
+        }
+        return result;
+    }
+
+    @Override
+    public void set(int rowIndex, int columnIndex, String value)
+    {
+        throw new UnsupportedOperationException("Memory mapped table data is read only");
+    }
+
+    @Override
+    public int getRowSize()
+    {
+        return this.numberOfRows;
+    }
+
+    @Override
+    public int getColumnSize()
+    {
+        return this.numberOfColumns;
+    }
+
+    @Override
+    public void setRowSize(int rowSize)
+    {
+        throw new UnsupportedOperationException("Memory mapped table data is read only");
+    }
+
+    /**
+     * Returns this instance, since it is read only already
+     */
+    @Override
+    public TableStorage snapshot()
+    {
+        return this;
+    }
+
+    /**
+     * Counts only the column titles, the values stay in the mapped file
+     */
+    @Override
+    public void accumulateMemoryUsage(MemoryUsage memoryUsage)
+    {
+        memoryUsage.addOverhead(MemoryUsage.sizeOfObject(4 * MemoryUsage.REFERENCE + 2 * Integer.BYTES + 2 * Long.BYTES))
+                   .addOverhead(MemoryUsage.sizeOfArray(this.windows.length, MemoryUsage.REFERENCE))
+                   .addOverhead(MemoryUsage.sizeOfArrayList(this.columnTitles.size()));
+        this.columnTitles.forEach(memoryUsage::addOverheadValue);
+    }
+
+    @Override
+    public String[] getRow(int rowIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+
+        String[] result = new String[this.numberOfColumns];
+        for (int ii = 0; ii < result.length; ii++)
+        {
+            result[ii] = this.get(rowIndex, ii);
+        }
+        return result;
+    }
+
+    @Override
+    public String[] getColumn(int columnIndex)
+    {
+        if (columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        String[] result = new String[this.numberOfRows];
+        if (columnIndex < this.numberOfColumns)
+        {
+            for (int ii = 0; ii < result.length; ii++)
+            {
+                result[ii] = this.get(ii, columnIndex);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return TableStorage.contentHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof TableStorage))
+        {
+            return false;
+        }
+        return TableStorage.contentEquals(this, (TableStorage) obj);
+    }
+
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.omnaest.utils.table.domain.MemoryStats;
+import org.omnaest.utils.table.domain.MemoryStats.ColumnMemoryStats;
+
+/**
+ * Accumulates the {@link MemoryStats} of an {@link ArrayTable} from its {@link TableStorage} and indexes. The size estimations assume a 64 bit JVM
+ * with compressed references and compact {@link String}s.<br>
+ * <br>
+ * {@link String} instances shared by multiple cells are detected by a fixed size cache of recently counted instances, so accumulating the usage does not
+ * allocate memory in proportion to the number of cells. Instances which are displaced from the cache are counted again, so for many distinct shared
+ * instances the retained bytes are an upper bound.
+ */
+public class MemoryUsage
+{
+    public static final int REFERENCE     = 4;
+    public static final int OBJECT_HEADER = 12;
+    public static final int ARRAY_HEADER  = 16;
+
+    private static final int HASH_MAP_NODE             = 32;
+    private static final int HASH_MAP_MINIMUM_TABLE    = 16;
+    private static final int COUNTED_VALUES_CACHE_SIZE = 1 << 12;
+
+    private long        overheadBytes     = 0;
+    private long[]      columnBytes       = new long[0];
+    private long        usedCapacity      = 0;
+    private long        allocatedCapacity = 0;
+    private String[]    countedValues     = new String[COUNTED_VALUES_CACHE_SIZE];
+    private int         numberOfColumns   = 0;
+
+    public MemoryUsage addOverhead(long bytes)
+    {
+        this.overheadBytes += bytes;
+        return this;
+    }
+
+    /**
+     * Adds the size of the given {@link String} to the overhead, if the same instance has not been counted before
+     * 
+     * @param value
+     * @return
+     */
+    public MemoryUsage addOverheadValue(String value)
+    {
+        if (value != null && this.markAsCounted(value))
+        {
+            this.overheadBytes += sizeOfString(value);
+        }
+        return this;
+    }
+
+    public MemoryUsage addColumnBytes(int columnIndex, long bytes)
+    {
+        if (columnIndex >= this.columnBytes.length)
+        {
+            this.columnBytes = Arrays.copyOf(this.columnBytes, Math.max(columnIndex + 1, this.columnBytes.length * 2));
+        }
+        this.columnBytes[columnIndex] += bytes;
+        this.numberOfColumns = Math.max(this.numberOfColumns, columnIndex + 1);
+        return this;
+    }
+
+    /**
+     * Adds the size of the given {@link String} to the given column, if the same instance has not been counted before
+     * 
+     * @param columnIndex
+     * @param value
+     * @return
+     */
+    public MemoryUsage addColumnValue(int columnIndex, String value)
+    {
+        if (value != null && this.markAsCounted(value))
+        {
+            this.addColumnBytes(columnIndex, sizeOfString(value));
+        }
+        return this;
+    }
+
+    /**
+     * Returns false, if the same instance is still within the cache of counted values, otherwise puts it into the cache and returns true
+     * 
+     * @param value
+     * @return
+     */
+    private boolean markAsCounted(String value)
+    {
+        int slot = System.identityHashCode(value) & (COUNTED_VALUES_CACHE_SIZE - 1);
+        if (this.countedValues[slot] == value)
+        {
+            return false;
+        }
+        this.countedValues[slot] = value;
+        return true;
+    }
+
+    public MemoryUsage addCapacity(long usedCapacity, long allocatedCapacity)
+    {
+        this.usedCapacity += usedCapacity;
+        this.allocatedCapacity += allocatedCapacity;
+        return this;
+    }
+
+    public static long sizeOfObject(int fieldBytes)
+    {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    public static long sizeOfArray(int length, int elementBytes)
+    {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+
+    public static long sizeOfString(String value)
+    {
+        boolean latin1 = true;
+        for (int ii = 0; ii < value.length() && latin1; ii++)
+        {
+            latin1 = value.charAt(ii) <= 0xFF;
+        }
+        return sizeOfObject(REFERENCE + Integer.BYTES + 2) + sizeOfArray(value.length(), latin1 ? 1 : 2);
+    }
+
+    public static long sizeOfArrayList(int size)
+    {
+        return sizeOfObject(2 * Integer.BYTES + REFERENCE) + sizeOfArray(size, REFERENCE);
+    }
+
+    /**
+     * Returns the size of a {@link java.util.HashMap} with the given number of entries excluding the keys and values. The table size follows the capacity
+     * rule of the {@link java.util.HashMap}: the next power of two of size / 0.75, but at least 16.
+     * 
+     * @param size
+     * @return
+     */
+    public static long sizeOfHashMap(int size)
+    {
+        int tableSize = size == 0 ? 0 : Math.max(HASH_MAP_MINIMUM_TABLE, Integer.highestOneBit((int) Math.ceil(size / 0.75) - 1) << 1);
+        return sizeOfObject(6 * REFERENCE + 4 * Integer.BYTES) + sizeOfArray(tableSize, REFERENCE) + (long) size * HASH_MAP_NODE;
+    }
+
+    public static long sizeOfBitSet(BitSet bitSet)
+    {
+        return sizeOfObject(REFERENCE + Integer.BYTES + 1) + sizeOfArray(bitSet.size() / Long.SIZE, Long.BYTES);
+    }
+
+    private static long align(long bytes)
+    {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Returns the accumulated {@link MemoryStats}. The returned instance does not refer to any of the counted values.
+     * 
+     * @param columnTitles
+     * @return
+     */
+    public MemoryStats toMemoryStats(List<String> columnTitles)
+    {
+        long retainedBytes = this.overheadBytes + Arrays.stream(this.columnBytes)
+                                                        .sum();
+        long allocatedCapacity = this.allocatedCapacity;
+        long usedCapacity = this.usedCapacity;
+        List<ColumnMemoryStats> columns = new ArrayList<>();
+        for (int ii = 0; ii < Math.max(this.numberOfColumns, columnTitles.size()); ii++)
+        {
+            columns.add(new ColumnMemoryStatsImpl(ii, ii < columnTitles.size() ? columnTitles.get(ii) : null,
+                                                  ii < this.columnBytes.length ? this.columnBytes[ii] : 0));
+        }
+
+        return new MemoryStats() {
+            @Override
+            public long getRetainedBytes()
+            {
+                return retainedBytes;
+            }
+
+            @Override
+            public long getAllocatedCapacity()
+            {
+                return allocatedCapacity;
+            }
+
+            @Override
+            public long getUsedCapacity()
+            {
+                return usedCapacity;
+            }
+
+            @Override
+            public List<ColumnMemoryStats> getColumns()
+            {
+                return Collections.unmodifiableList(columns);
+            }
+
+            @Override
+            public String toString()
+            {
+                return "MemoryStats [retainedBytes=" + retainedBytes + ", allocatedCapacity=" + allocatedCapacity + ", usedCapacity=" + usedCapacity
+                        + ", columns=" + columns + "]";
+            }
+        };
+    }
+
+    private static class ColumnMemoryStatsImpl implements ColumnMemoryStats
+    {
+        private final int    columnIndex;
+        private final String columnTitle;
+        private final long   retainedBytes;
+
+        public ColumnMemoryStatsImpl(int columnIndex, String columnTitle, long retainedBytes)
+        {
+            super();
+            this.columnIndex = columnIndex;
+            this.columnTitle = columnTitle;
+            this.retainedBytes = retainedBytes;
+        }
+
+        @Override
+        public int getColumnIndex()
+        {
+            return this.columnIndex;
+        }
+
+        @Override
+        public String getColumnTitle()
+        {
+            return this.columnTitle;
+        }
+
+        @Override
+        public long getRetainedBytes()
+        {
+            return this.retainedBytes;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "ColumnMemoryStats [columnIndex=" + this.columnIndex + ", columnTitle=" + this.columnTitle + ", retainedBytes=" + this.retainedBytes + "]";
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import org.omnaest.utils.table.CloseableTable;
+import org.omnaest.utils.table.Table;
+
+/**
+ * {@link Table} implementation based on an {@link OffHeapTableData} storage, which keeps the cell values outside of the java heap until {@link #close()} is
+ * called.
+ * 
+ * @see Table#newOffHeapInstance()
+ */
+public class OffHeapTable extends ArrayTable implements CloseableTable
+{
+    private final OffHeapTableData data;
+
+    public OffHeapTable()
+    {
+        this(new OffHeapTableData());
+    }
+
+    private OffHeapTable(OffHeapTableData data)
+    {
+        super(data);
+        this.data = data;
+    }
+
+    @Override
+    public void close()
+    {
+        this.data.close();
+    }
+}
@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link TableStorage} which keeps the UTF-8 bytes of the cell values outside of the java heap in direct {@link ByteBuffer} segments. Per cell only the
+ * address and length of its bytes are held on the heap in primitive arrays, so a large table does not consist of millions of {@link String} objects the
+ * garbage collector has to trace. The {@link String}s are decoded lazily when a value is read.<br>
+ * <br>
+ * Values are appended to the segments, so overwriting a cell does not free the bytes of its previous value. All segments are released by {@link #close()}.<br>
+ * <br>
+ * A {@link #snapshot()} is a read only {@link OffHeapTableData} sharing the segments, which are never overwritten, and the address and length arrays of
+ * the columns. The first write into a shared column afterwards copies only the arrays of that column. {@link #close()} leaves the segments shared with
+ * a snapshot to the garbage collector, since the snapshot might still read them, and releases all segments allocated afterwards.<br>
+ * <br>
+ * The storage is not thread safe. Reads do not lock, so concurrent readers are fine as long as there is no writer, but {@link #close()} must not be
+ * called while any other thread still reads from or writes to the storage, since reading released off heap memory can crash the jvm.
+ * 
+ * @see TableData
+ */
+public class OffHeapTableData implements TableStorage, AutoCloseable
+{
+    private static final int                  SEGMENT_SIZE            = 1 << 20;
+    private static final int                  INITIAL_COLUMN_CAPACITY = 16;
+    private static final Consumer<ByteBuffer> BUFFER_RELEASER         = determineBufferReleaser();
+
+    private final boolean    readOnly;
+    private List<ByteBuffer> segments        = new ArrayList<>();
+    private long[][]         addresses       = new long[0][];
+    private int[][]          lengths         = new int[0][];
+    private int              numberOfRows    = 0;
+    private int              numberOfColumns = 0;
+    private volatile boolean closed          = false;
+    private int              sharedSegments  = 0;
+    private BitSet           sharedColumns   = new BitSet();
+
+    public OffHeapTableData()
+    {
+        super();
+        this.readOnly = false;
+    }
+
+    private OffHeapTableData(List<ByteBuffer> segments, long[][] addresses, int[][] lengths, int numberOfRows, int numberOfColumns)
+    {
+        super();
+        this.readOnly = true;
+        this.segments = segments;
+        this.addresses = addresses;
+        this.lengths = lengths;
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        this.sharedSegments = segments.size();
+    }
+
+    @Override
+    public String get(int rowIndex, int columnIndex)
+    {
+        this.validateIsOpen();
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+        this.validateIndexOutOfBoundsForColumn(columnIndex);
+
+        int[] lengths = this.lengths[columnIndex];
+        int length = lengths != null && rowIndex < lengths.length ? lengths[rowIndex] - 1 : -1;
+        if (length < 0)
+        {
+            return null;
+        }
+
+        long address = this.addresses[columnIndex][rowIndex];
+        byte[] bytes = new byte[length];
+        this.segments.get((int) (address >>> 32))
+                     .get((int) address, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void validateIsOpen()
+    {
+        if (this.closed)
+        {
+            throw new IllegalStateException("Table storage has already been closed");
+        }
+    }
+
+    private void validateIndexOutOfBoundsForRow(int rowIndex)
+    {
+        if (rowIndex < 0 || rowIndex >= this.numberOfRows)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void validateIndexOutOfBoundsForColumn(int columnIndex)
+    {
+        if (columnIndex < 0 || columnIndex >= this.numberOfColumns)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void validateWritable()
+    {
+        if (this.readOnly)
+        {
+            throw new UnsupportedOperationException("Snapshot of off heap table data is read only");
+        }
+    }
+
+    @Override
+    public void set(int rowIndex, int columnIndex, String value)
+    {
+        this.validateIsOpen();
+        this.validateWritable();
+        if (rowIndex < 0 || columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        this.numberOfRows = Math.max(this.numberOfRows, rowIndex + 1);
+        this.numberOfColumns = Math.max(this.numberOfColumns, columnIndex + 1);
+        this.extendColumnsIfNecessary(columnIndex);
+        if (this.sharedColumns.get(columnIndex))
+        {
+            if (this.addresses[columnIndex] != null)
+            {
+                this.addresses[columnIndex] = this.addresses[columnIndex].clone();
+                this.lengths[columnIndex] = this.lengths[columnIndex].clone();
+            }
+            this.sharedColumns.clear(columnIndex);
+        }
+
+        if (value == null)
+        {
+            int[] lengths = this.lengths[columnIndex];
+            if (lengths != null && rowIndex < lengths.length)
+            {
+                lengths[rowIndex] = 0;
+            }
+        }
+        else
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            long address = this.write(bytes);
+            this.extendColumnIfNecessary(columnIndex, rowIndex);
+            this.addresses[columnIndex][rowIndex] = address;
+            this.lengths[columnIndex][rowIndex] = bytes.length + 1;
+        }
+    }
+
+    private long write(byte[] bytes)
+    {
+        int segmentIndex = this.segments.size() - 1;
+        ByteBuffer segment = segmentIndex >= 0 ? this.segments.get(segmentIndex) : null;
+        if (segment == null || segment.remaining() < bytes.length)
+        {
+            segment = ByteBuffer.allocateDirect(Math.max(SEGMENT_SIZE, bytes.length));
+            this.segments.add(segment);
+            segmentIndex++;
+        }
+
+        int offset = segment.position();
+        segment.put(bytes);
+        return ((long) segmentIndex << 32) | offset;
+    }
+
+    private void extendColumnsIfNecessary(int columnIndex)
+    {
+        if (columnIndex >= this.addresses.length)
+        {
+            int newColumnCapacity = Math.max(columnIndex + 1, this.addresses.length * 2);
+            this.addresses = Arrays.copyOf(this.addresses, newColumnCapacity);
+            this.lengths = Arrays.copyOf(this.lengths, newColumnCapacity);
+        }
+    }
+
+    private void extendColumnIfNecessary(int columnIndex, int rowIndex)
+    {
+        long[] addresses = this.addresses[columnIndex];
+        if (addresses == null || rowIndex >= addresses.length)
+        {
+            int newCapacity = addresses == null ? Math.max(rowIndex + 1, INITIAL_COLUMN_CAPACITY) : Math.max(rowIndex + 1, addresses.length * 2);
+            this.addresses[columnIndex] = addresses == null ? new long[newCapacity] : Arrays.copyOf(addresses, newCapacity);
+            this.lengths[columnIndex] = addresses == null ? new int[newCapacity] : Arrays.copyOf(this.lengths[columnIndex], newCapacity);
+        }
+    }
+
+    @Override
+    public int getRowSize()
+    {
+        return this.numberOfRows;
+    }
+
+    @Override
+    public int getColumnSize()
+    {
+        return this.numberOfColumns;
+    }
+
+    @Override
+    public void setRowSize(int rowSize)
+    {
+        this.validateWritable();
+        this.numberOfRows = Math.max(this.numberOfRows, rowSize);
+    }
+
+    /**
+     * Counts only the heap arrays holding the addresses and lengths of the values, the off heap segments are not part of the heap
+     */
+    @Override
+    public void accumulateMemoryUsage(MemoryUsage memoryUsage)
+    {
+        memoryUsage.addOverhead(MemoryUsage.sizeOfObject(4 * MemoryUsage.REFERENCE + 3 * Integer.BYTES + 2))
+                   .addOverhead(MemoryUsage.sizeOfBitSet(this.sharedColumns))
+                   .addOverhead(MemoryUsage.sizeOfArrayList(this.segments.size()))
+                   .addOverhead(2 * MemoryUsage.sizeOfArray(this.addresses.length, MemoryUsage.REFERENCE));
+        for (int columnIndex = 0; columnIndex < this.numberOfColumns; columnIndex++)
+        {
+            long[] addresses = this.addresses[columnIndex];
+            if (addresses != null)
+            {
+                memoryUsage.addColumnBytes(columnIndex, MemoryUsage.sizeOfArray(addresses.length, Long.BYTES))
+                           .addColumnBytes(columnIndex, MemoryUsage.sizeOfArray(addresses.length, Integer.BYTES))
+                           .addCapacity(Math.min(addresses.length, this.numberOfRows), addresses.length);
+            }
+        }
+    }
+
+    @Override
+    public String[] getRow(int rowIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+
+        String[] result = new String[this.numberOfColumns];
+        for (int ii = 0; ii < result.length; ii++)
+        {
+            result[ii] = this.get(rowIndex, ii);
+        }
+        return result;
+    }
+
+    @Override
+    public String[] getColumn(int columnIndex)
+    {
+        if (columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        String[] result = new String[this.numberOfRows];
+        if (columnIndex < this.numberOfColumns)
+        {
+            for (int ii = 0; ii < result.length; ii++)
+            {
+                result[ii] = this.get(ii, columnIndex);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a read only {@link OffHeapTableData} which shares the current segments and the arrays of the current columns. All columns are marked as
+     * shared, so their arrays are copied before they are written again. Since segments are only appended, the shared segments are the ones existing at
+     * the time of the latest snapshot.
+     */
+    @Override
+    public synchronized TableStorage snapshot()
+    {
+        this.validateIsOpen();
+        if (this.readOnly)
+        {
+            return this;
+        }
+        this.sharedColumns.set(0, this.numberOfColumns);
+        this.sharedSegments = this.segments.size();
+        return new OffHeapTableData(new ArrayList<>(this.segments), Arrays.copyOf(this.addresses, this.numberOfColumns),
+                                    Arrays.copyOf(this.lengths, this.numberOfColumns), this.numberOfRows, this.numberOfColumns);
+    }
+
+    /**
+     * Releases all off heap segments. Any further access to this {@link OffHeapTableData} results in an {@link IllegalStateException}. Segments shared
+     * with a {@link #snapshot()} are not released explicitly, but by the garbage collector as soon as the snapshot is not referenced anymore. All
+     * segments allocated after the latest snapshot are released immediately.<br>
+     * <br>
+     * Must not be called while other threads still access this {@link OffHeapTableData}.
+     */
+    @Override
+    public synchronized void close()
+    {
+        if (!this.closed)
+        {
+            this.closed = true;
+            this.segments.subList(this.sharedSegments, this.segments.size())
+                         .forEach(BUFFER_RELEASER);
+            this.segments = new ArrayList<>();
+            this.addresses = new long[0][];
+            this.lengths = new int[0][];
+        }
+    }
+
+    public boolean isClosed()
+    {
+        return this.closed;
+    }
+
+    /**
+     * Returns a {@link Consumer} which frees the memory of a direct {@link ByteBuffer} immediately. If that is not supported by the running jvm, the memory
+     * is freed by the garbage collector as soon as the {@link ByteBuffer} is not referenced anymore.
+     * 
+     * @return
+     */
+    private static Consumer<ByteBuffer> determineBufferReleaser()
+    {
+        try
+        {
+            Class<?> unsafeType = Class.forName("sun.misc.Unsafe");
+            Field unsafeField = unsafeType.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            Object unsafe = unsafeField.get(null);
+            Method invokeCleaner = unsafeType.getMethod("invokeCleaner", ByteBuffer.class);
+            return buffer ->
+            {
+                try
+                {
+                    invokeCleaner.invoke(unsafe, buffer);
+                }
+                catch (ReflectiveOperationException e)
+                {
+                    // leave the buffer to the garbage collector
+                }
+            };
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            return buffer ->
+            {
+                // leave the buffer to the garbage collector
+            };
+        }
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return TableStorage.contentHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof TableStorage))
+        {
+            return false;
+        }
+        return TableStorage.contentEquals(this, (TableStorage) obj);
+    }
+
+}
@@ -0,0 +1,579 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.io.IOUtils;
+import org.omnaest.utils.exception.RuntimeIOException;
+
+/**
+ * Reads a csv {@link File} with multiple threads of a {@link ForkJoinPool}.<br>
+ * <br>
+ * The header record is read first, the remaining file is split into byte ranges which end at a line break outside of any quoted value. A line feed, a
+ * carriage return and a carriage return followed by a line feed are line breaks. Since an escaped quote is written as two quotes, a position is within a
+ * quoted value exactly if an odd number of quote characters precedes it. So the quotes of all ranges are counted in parallel first, which gives the quote
+ * state at the start of every range, and then every range is moved forward to its first line break outside of a quoted value, again in parallel.<br>
+ * <br>
+ * This only holds as long as every quote character opens, closes or escapes a quoted value. A quote character within an unquoted value is taken literally
+ * by the parser and inverts the quote state derived for all following positions. So a chunk which contains such a quote character or which can not be
+ * parsed has an ambiguous end, and all records from the start of this chunk on are read sequentially instead.<br>
+ * <br>
+ * The resulting chunks are memory mapped, parsed, projected and filtered concurrently, while the consumer of the returned {@link Stream} gets the records
+ * of the chunks in their original order. Only chunks up to a limited number of bytes are parsed ahead, which bounds the memory held by parsed but not yet
+ * consumed records.
+ */
+public class ParallelCsvReader
+{
+    private static final long MINIMUM_CHUNK_SIZE    = 1L << 20;
+    private static final long MAXIMUM_CHUNK_SIZE    = 1L << 24;
+    private static final long MAXIMUM_BYTES_AHEAD   = 1L << 27;
+    private static final int  CHUNKS_PER_THREAD     = 4;
+    private static final int  CHUNKS_AHEAD_FACTOR   = 2;
+    private static final int  SEQUENTIAL_BATCH_SIZE = 1 << 12;
+    private static final byte LINE_FEED             = '\n';
+    private static final byte CARRIAGE_RETURN       = '\r';
+    private static final char NO_QUOTE_CHARACTER    = 0;
+
+    private final CSVFormat    csvFormat;
+    private final char         quoteCharacter;
+    private final ForkJoinPool forkJoinPool;
+    private long               chunkSize = -1;
+
+    public ParallelCsvReader(CSVFormat csvFormat, ForkJoinPool forkJoinPool)
+    {
+        super();
+        if (!supports(csvFormat))
+        {
+            throw new IllegalArgumentException("Csv formats with options beyond a delimiter and a doubled quote character can not be split into chunks");
+        }
+        this.csvFormat = csvFormat;
+        this.quoteCharacter = csvFormat.isQuoteCharacterSet() ? csvFormat.getQuoteCharacter() : NO_QUOTE_CHARACTER;
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * Returns true, if files of the given {@link CSVFormat} can be split into chunks. The chunks are parsed by a {@link CsvTokenizer}, which reports quote
+     * characters within unquoted values, see {@link CsvTokenizer#supports(CSVFormat)}.
+     * 
+     * @param csvFormat
+     * @return
+     */
+    public static boolean supports(CSVFormat csvFormat)
+    {
+        return CsvTokenizer.supports(csvFormat);
+    }
+
+    /**
+     * Sets a fixed chunk size instead of one derived from the file size and the parallelism of the {@link ForkJoinPool}
+     * 
+     * @param chunkSize
+     * @return
+     */
+    ParallelCsvReader withChunkSize(long chunkSize)
+    {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Reads the given {@link File} lazily. The header names are passed to the header function, which returns the {@link CsvProjection} of all following
+     * records. The records of each chunk are projected and filtered by a {@link Predicate} of the filter factory, which is called once per chunk with the
+     * projected column titles, so the {@link Predicate}s are not shared between threads.<br>
+     * <br>
+     * The returned {@link Stream} holds the remaining records in the order of the file and has to be closed. Closing it early cancels the chunks which are
+     * not yet consumed.
+     * 
+     * @throws RuntimeIOException
+     * @param file
+     * @param headerFunction
+     * @param filterFactory
+     * @return
+     */
+    public Stream<String[]> read(File file, Function<List<String>, CsvProjection> headerFunction, Function<List<String>, Predicate<String[]>> filterFactory)
+    {
+        FileChannel channel = null;
+        try
+        {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            return this.read(channel, headerFunction, filterFactory);
+        }
+        catch (IOException e)
+        {
+            IOUtils.closeQuietly(channel);
+            throw new RuntimeIOException(e);
+        }
+        catch (UncheckedIOException e)
+        {
+            IOUtils.closeQuietly(channel);
+            throw new RuntimeIOException(e.getCause());
+        }
+        catch (RuntimeException e)
+        {
+            IOUtils.closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    private Stream<String[]> read(FileChannel channel, Function<List<String>, CsvProjection> headerFunction,
+                                  Function<List<String>, Predicate<String[]>> filterFactory)
+        throws IOException
+    {
+        long size = channel.size();
+        long headerStart = 0;
+        long headerEnd = 0;
+        Chunk headerChunk;
+        do
+        {
+            headerStart = headerEnd;
+            headerEnd = findRecordStart(channel, headerStart, size, false, this.quoteCharacter);
+            headerChunk = this.parseChunk(channel, headerStart, headerEnd, CsvProjection.of(Collections.emptyList(), null), record -> true);
+        } while (!headerChunk.isAmbiguous() && headerChunk.getRecords()
+                                                          .isEmpty()
+                && headerEnd < size);
+
+        Deque<ForkJoinTask<Chunk>> chunks = new ArrayDeque<>();
+        if (headerChunk.isAmbiguous())
+        {
+            CsvTokenizer tokenizer = this.newTokenizer(channel, headerStart);
+            String[] header = tokenizer.next(null);
+            CsvProjection projection = headerFunction.apply(header == null ? Collections.emptyList() : Arrays.asList(header));
+            return toStream(new SequentialChunkIterator(tokenizer, projection, filterFactory.apply(projection.getColumnTitles())), chunks, channel);
+        }
+        CsvProjection projection = headerFunction.apply(headerChunk.getRecords()
+                                                                   .isEmpty() ? Collections.emptyList()
+                                                                           : Arrays.asList(headerChunk.getRecords()
+                                                                                                      .get(0)));
+
+        long chunkSize = this.chunkSize > 0 ? this.chunkSize
+                : Math.min(MAXIMUM_CHUNK_SIZE, Math.max(MINIMUM_CHUNK_SIZE, size / ((long) this.forkJoinPool.getParallelism() * CHUNKS_PER_THREAD)));
+        long[] boundaries = this.determineChunkBoundaries(channel, headerEnd, size, chunkSize);
+        int maximumChunksAhead = this.forkJoinPool.getParallelism() * CHUNKS_AHEAD_FACTOR;
+
+        Iterator<List<String[]>> chunkIterator = new Iterator<List<String[]>>() {
+            private int                      nextChunk  = 0;
+            private long                     bytesAhead = 0;
+            private Iterator<List<String[]>> sequentialChunks;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (this.sequentialChunks != null)
+                {
+                    return this.sequentialChunks.hasNext();
+                }
+                return this.nextChunk < boundaries.length - 1 || !chunks.isEmpty();
+            }
+
+            @Override
+            public List<String[]> next()
+            {
+                if (!this.hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                if (this.sequentialChunks != null)
+                {
+                    return this.sequentialChunks.next();
+                }
+
+                while (this.nextChunk < boundaries.length - 1 && (chunks.isEmpty() || (chunks.size() < maximumChunksAhead
+                        && this.bytesAhead + boundaries[this.nextChunk + 1] - boundaries[this.nextChunk] <= MAXIMUM_BYTES_AHEAD)))
+                {
+                    long start = boundaries[this.nextChunk];
+                    long end = boundaries[this.nextChunk + 1];
+                    chunks.add(ParallelCsvReader.this.forkJoinPool.submit(() -> ParallelCsvReader.this.parseChunk(channel, start, end, projection,
+                                                                                                                  filterFactory.apply(projection.getColumnTitles()))));
+                    this.bytesAhead += end - start;
+                    this.nextChunk++;
+                }
+                Chunk chunk;
+                try
+                {
+                    chunk = chunks.removeFirst()
+                                  .join();
+                }
+                catch (UncheckedIOException e)
+                {
+                    throw new RuntimeIOException(e.getCause());
+                }
+                this.bytesAhead -= chunk.getEnd() - chunk.getStart();
+                if (!chunk.isAmbiguous())
+                {
+                    return chunk.getRecords();
+                }
+
+                chunks.forEach(pendingChunk -> pendingChunk.cancel(false));
+                chunks.clear();
+                try
+                {
+                    this.sequentialChunks = new SequentialChunkIterator(ParallelCsvReader.this.newTokenizer(channel, chunk.getStart()), projection,
+                                                                        filterFactory.apply(projection.getColumnTitles()));
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeIOException(e);
+                }
+                return this.sequentialChunks.hasNext() ? this.sequentialChunks.next() : Collections.emptyList();
+            }
+        };
+        return toStream(chunkIterator, chunks, channel);
+    }
+
+    private static Stream<String[]> toStream(Iterator<List<String[]>> chunkIterator, Deque<ForkJoinTask<Chunk>> chunks, FileChannel channel)
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunkIterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                            .flatMap(List::stream)
+                            .onClose(() ->
+                            {
+                                chunks.forEach(chunk -> chunk.cancel(false));
+                                try
+                                {
+                                    channel.close();
+                                }
+                                catch (IOException e)
+                                {
+                                    throw new RuntimeIOException(e);
+                                }
+                            });
+    }
+
+    /**
+     * Parses the given byte range. The returned {@link Chunk} is ambiguous and holds no records, if the range contains a quote character within an unquoted
+     * value or can not be parsed, since then the range may not end at a record boundary.
+     */
+    private Chunk parseChunk(FileChannel channel, long start, long end, CsvProjection projection, Predicate<String[]> filter)
+    {
+        boolean[] selection = projection.getSelection();
+        InputStream inputStream = new ByteBufferInputStream(map(channel, start, end));
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new InputStreamReader(inputStream, StandardCharsets.UTF_8), this.csvFormat))
+        {
+            List<String[]> records = new ArrayList<>();
+            for (String[] record = tokenizer.next(selection); record != null; record = tokenizer.next(selection))
+            {
+                if (tokenizer.hasReadLiteralQuote())
+                {
+                    return new Chunk(start, end, Collections.emptyList(), true);
+                }
+                String[] projectedRecord = projection.apply(record);
+                if (filter.test(projectedRecord))
+                {
+                    records.add(projectedRecord);
+                }
+            }
+            return new Chunk(start, end, records, false);
+        }
+        catch (IOException e)
+        {
+            // a malformed file fails again, when it is read sequentially
+            return new Chunk(start, end, Collections.emptyList(), true);
+        }
+    }
+
+    private CsvTokenizer newTokenizer(FileChannel channel, long position) throws IOException
+    {
+        return new CsvTokenizer(new InputStreamReader(Channels.newInputStream(channel.position(position)), StandardCharsets.UTF_8), this.csvFormat);
+    }
+
+    /**
+     * Returns the start positions of all chunks between the given start and size followed by the size. Chunks of neighboring ranges which end at the same
+     * line break are merged.
+     */
+    private long[] determineChunkBoundaries(FileChannel channel, long start, long size, long chunkSize)
+    {
+        int numberOfRanges = (int) Math.max(1, (size - start + chunkSize - 1) / chunkSize);
+        char quoteCharacter = this.quoteCharacter;
+
+        List<ForkJoinTask<Long>> quoteCounts = new ArrayList<>();
+        for (int ii = 0; ii < numberOfRanges; ii++)
+        {
+            long rangeStart = start + ii * chunkSize;
+            long rangeEnd = Math.min(size, rangeStart + chunkSize);
+            quoteCounts.add(this.forkJoinPool.submit(() -> countQuotes(channel, rangeStart, rangeEnd, quoteCharacter)));
+        }
+
+        List<ForkJoinTask<Long>> recordStarts = new ArrayList<>();
+        long numberOfPreviousQuotes = 0;
+        for (int ii = 1; ii < numberOfRanges; ii++)
+        {
+            long rangeStart = start + ii * chunkSize;
+            numberOfPreviousQuotes += quoteCounts.get(ii - 1)
+                                                 .join();
+            boolean quoted = (numberOfPreviousQuotes & 1) == 1;
+            recordStarts.add(this.forkJoinPool.submit(() -> findRecordStart(channel, rangeStart, size, quoted, quoteCharacter)));
+        }
+
+        long[] boundaries = new long[numberOfRanges + 1];
+        int numberOfBoundaries = 0;
+        if (start < size)
+        {
+            boundaries[numberOfBoundaries++] = start;
+        }
+        for (ForkJoinTask<Long> recordStart : recordStarts)
+        {
+            long boundary = recordStart.join();
+            if (boundary < size && boundary > boundaries[numberOfBoundaries - 1])
+            {
+                boundaries[numberOfBoundaries++] = boundary;
+            }
+        }
+        boundaries[numberOfBoundaries++] = size;
+        return Arrays.copyOf(boundaries, numberOfBoundaries);
+    }
+
+    private static long countQuotes(FileChannel channel, long start, long end, char quoteCharacter)
+    {
+        if (quoteCharacter == NO_QUOTE_CHARACTER)
+        {
+            return 0;
+        }
+
+        long result = 0;
+        ByteBuffer buffer = map(channel, start, end);
+        while (buffer.hasRemaining())
+        {
+            if (buffer.get() == quoteCharacter)
+            {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position behind the first line break at or after the given position which is not within a quoted value, or the file size. A carriage
+     * return followed by a line feed is a single line break.
+     */
+    private static long findRecordStart(FileChannel channel, long position, long size, boolean quoted, char quoteCharacter)
+    {
+        while (position < size)
+        {
+            ByteBuffer buffer = map(channel, position, Math.min(size, position + MAXIMUM_CHUNK_SIZE));
+            while (buffer.hasRemaining())
+            {
+                byte value = buffer.get();
+                if (quoteCharacter != NO_QUOTE_CHARACTER && value == quoteCharacter)
+                {
+                    quoted = !quoted;
+                }
+                else if ((value == LINE_FEED || value == CARRIAGE_RETURN) && !quoted)
+                {
+                    long recordStart = position + buffer.position();
+                    if (value == CARRIAGE_RETURN && recordStart < size
+                            && (buffer.hasRemaining() ? buffer.get(buffer.position()) : map(channel, recordStart, recordStart + 1).get()) == LINE_FEED)
+                    {
+                        recordStart++;
+                    }
+                    return recordStart;
+                }
+            }
+            position += buffer.position();
+        }
+        return size;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long start, long end)
+    {
+        try
+        {
+            return channel.map(MapMode.READ_ONLY, start, end - start);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parsed records of the byte range of a chunk
+     */
+    private static class Chunk
+    {
+        private final long           start;
+        private final long           end;
+        private final List<String[]> records;
+        private final boolean        ambiguous;
+
+        public Chunk(long start, long end, List<String[]> records, boolean ambiguous)
+        {
+            super();
+            this.start = start;
+            this.end = end;
+            this.records = records;
+            this.ambiguous = ambiguous;
+        }
+
+        public long getStart()
+        {
+            return this.start;
+        }
+
+        public long getEnd()
+        {
+            return this.end;
+        }
+
+        public List<String[]> getRecords()
+        {
+            return this.records;
+        }
+
+        /**
+         * Returns true, if the end of the chunk is not known to be a record boundary
+         * 
+         * @return
+         */
+        public boolean isAmbiguous()
+        {
+            return this.ambiguous;
+        }
+    }
+
+    /**
+     * Reads the remaining records of a {@link CsvTokenizer} sequentially in batches, which replaces all chunks from the first ambiguous one on
+     */
+    private static class SequentialChunkIterator implements Iterator<List<String[]>>
+    {
+        private final CsvTokenizer        tokenizer;
+        private final CsvProjection       projection;
+        private final Predicate<String[]> filter;
+        private List<String[]>            records    = Collections.emptyList();
+        private boolean                   endOfInput = false;
+
+        public SequentialChunkIterator(CsvTokenizer tokenizer, CsvProjection projection, Predicate<String[]> filter)
+        {
+            super();
+            this.tokenizer = tokenizer;
+            this.projection = projection;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while (this.records.isEmpty() && !this.endOfInput)
+            {
+                this.records = this.readBatch();
+            }
+            return !this.records.isEmpty();
+        }
+
+        @Override
+        public List<String[]> next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            List<String[]> result = this.records;
+            this.records = Collections.emptyList();
+            return result;
+        }
+
+        private List<String[]> readBatch()
+        {
+            boolean[] selection = this.projection.getSelection();
+            List<String[]> result = new ArrayList<>();
+            try
+            {
+                for (int ii = 0; ii < SEQUENTIAL_BATCH_SIZE && !this.endOfInput; ii++)
+                {
+                    String[] record = this.tokenizer.next(selection);
+                    if (record == null)
+                    {
+                        this.endOfInput = true;
+                    }
+                    else
+                    {
+                        String[] projectedRecord = this.projection.apply(record);
+                        if (this.filter.test(projectedRecord))
+                        {
+                            result.add(projectedRecord);
+                        }
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeIOException(e);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * {@link InputStream} reading the remaining bytes of a {@link ByteBuffer}
+     */
+    private static class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        public ByteBufferInputStream(ByteBuffer buffer)
+        {
+            super();
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length)
+        {
+            if (length == 0)
+            {
+                return 0;
+            }
+            if (!this.buffer.hasRemaining())
+            {
+                return -1;
+            }
+            int numberOfBytes = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, numberOfBytes);
+            return numberOfBytes;
+        }
+    }
+}
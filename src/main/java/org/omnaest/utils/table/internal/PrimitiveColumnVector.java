@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.BitSet;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Base of the {@link ColumnVector}s which store their values in a primitive array. Null values are tracked in a separate {@link BitSet}, blank values are
+ * treated as null.<br>
+ * <br>
+ * If a value cannot be parsed, the vector switches over to a {@link StringColumnVector}, so no value gets lost.
+ */
+abstract class PrimitiveColumnVector implements ColumnVector, Cloneable
+{
+    protected static final int INITIAL_CAPACITY = 16;
+
+    private BitSet nonNullRows = new BitSet();
+
+    @Override
+    public String get(int rowIndex)
+    {
+        return this.isNull(rowIndex) ? null : this.format(rowIndex);
+    }
+
+    @Override
+    public boolean isNull(int rowIndex)
+    {
+        return !this.nonNullRows.get(rowIndex);
+    }
+
+    @Override
+    public ColumnVector set(int rowIndex, String value)
+    {
+        if (StringUtils.isBlank(value))
+        {
+            this.nonNullRows.clear(rowIndex);
+        }
+        else if (this.parseAndSet(rowIndex, value.trim()))
+        {
+            this.nonNullRows.set(rowIndex);
+        }
+        else
+        {
+            String[] values = new String[Math.max(rowIndex + 1, this.nonNullRows.length())];
+            this.copyInto(values);
+            return new StringColumnVector(values).set(rowIndex, value);
+        }
+        return this;
+    }
+
+    @Override
+    public void accumulateMemoryUsage(int columnIndex, int numberOfRows, MemoryUsage memoryUsage)
+    {
+        int capacity = this.getCapacity();
+        memoryUsage.addColumnBytes(columnIndex, MemoryUsage.sizeOfObject(2 * MemoryUsage.REFERENCE))
+                   .addColumnBytes(columnIndex, MemoryUsage.sizeOfBitSet(this.nonNullRows))
+                   .addColumnBytes(columnIndex, MemoryUsage.sizeOfArray(capacity, this.getBytesPerValue()))
+                   .addCapacity(Math.min(capacity, numberOfRows), capacity);
+    }
+
+    @Override
+    public ColumnVector copy()
+    {
+        try
+        {
+            PrimitiveColumnVector result = (PrimitiveColumnVector) this.clone();
+            result.nonNullRows = (BitSet) this.nonNullRows.clone();
+            result.resize(result.getCapacity());
+            return result;
+        }
+        catch (CloneNotSupportedException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void ensureCapacity(int numberOfRows)
+    {
+        if (numberOfRows > this.getCapacity())
+        {
+            this.resize(numberOfRows);
+        }
+    }
+
+    @Override
+    public void trimToSize(int numberOfRows)
+    {
+        if (numberOfRows < this.getCapacity())
+        {
+            this.resize(numberOfRows);
+        }
+    }
+
+    /**
+     * Copies the values into a primitive array of the given capacity
+     * 
+     * @param capacity
+     */
+    protected abstract void resize(int capacity);
+
+    /**
+     * Returns the length of the primitive array
+     * 
+     * @return
+     */
+    protected abstract int getCapacity();
+
+    protected abstract int getBytesPerValue();
+
+    protected static int determineNewCapacity(int capacity, int rowIndex)
+    {
+        return Math.max(rowIndex + 1, capacity * 2);
+    }
+
+    /**
+     * Returns the {@link String} representation of the non null value at the given row index
+     * 
+     * @param rowIndex
+     * @return
+     */
+    protected abstract String format(int rowIndex);
+
+    /**
+     * Parses the given value and stores it at the given row index. Returns false, if the value could not be parsed.
+     * 
+     * @param rowIndex
+     * @param value
+     * @return
+     */
+    protected abstract boolean parseAndSet(int rowIndex, String value);
+}
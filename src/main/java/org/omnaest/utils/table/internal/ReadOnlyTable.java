@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.omnaest.utils.table.ImmutableTable;
+import org.omnaest.utils.table.components.TableParallelProcessor;
+import org.omnaest.utils.table.components.TableSerializer;
+import org.omnaest.utils.table.components.TableTranslator;
+import org.omnaest.utils.table.domain.Column;
+import org.omnaest.utils.table.domain.Row;
+import org.omnaest.utils.table.domain.RowCursor;
+
+/**
+ * {@link ImmutableTable} which exposes only the read methods of an underlying {@link ArrayTable}
+ * 
+ * @see MappedTableData
+ */
+public class ReadOnlyTable implements ImmutableTable
+{
+    private final ArrayTable table;
+
+    public ReadOnlyTable(ArrayTable table)
+    {
+        super();
+        this.table = table;
+    }
+
+    ArrayTable getTable()
+    {
+        return this.table;
+    }
+
+    @Override
+    public Iterator<Row> iterator()
+    {
+        return this.table.iterator();
+    }
+
+    @Override
+    public Spliterator<Row> spliterator()
+    {
+        return this.table.spliterator();
+    }
+
+    @Override
+    public TableSerializer serialize()
+    {
+        return this.table.serialize();
+    }
+
+    @Override
+    public List<String> getColumnTitles()
+    {
+        return this.table.getColumnTitles();
+    }
+
+    @Override
+    public List<String> getEffectiveColumnTitles()
+    {
+        return this.table.getEffectiveColumnTitles();
+    }
+
+    @Override
+    public String getValue(int rowIndex, int columnIndex)
+    {
+        return this.table.getValue(rowIndex, columnIndex);
+    }
+
+    @Override
+    public String getValue(String rowTitle, String columnTitle)
+    {
+        return this.table.getValue(rowTitle, columnTitle);
+    }
+
+    @Override
+    public int getRowSize()
+    {
+        return this.table.getRowSize();
+    }
+
+    @Override
+    public List<Column> getColumns()
+    {
+        return this.table.getColumns();
+    }
+
+    @Override
+    public Optional<Column> getColumn(String columnTitle)
+    {
+        return this.table.getColumn(columnTitle);
+    }
+
+    @Override
+    public List<Column> getEffectiveColumns()
+    {
+        return this.table.getEffectiveColumns();
+    }
+
+    @Override
+    public Row getRow(int rowIndex)
+    {
+        return this.table.getRow(rowIndex);
+    }
+
+    @Override
+    public List<Row> getRows()
+    {
+        return this.table.getRows();
+    }
+
+    @Override
+    public Stream<Row> stream()
+    {
+        return this.table.stream();
+    }
+
+    @Override
+    public RowCursor cursor()
+    {
+        return this.table.cursor();
+    }
+
+    @Override
+    public ImmutableTable forEachRow(Consumer<RowCursor> rowCursorConsumer)
+    {
+        this.table.forEachRow(rowCursorConsumer);
+        return this;
+    }
+
+    @Override
+    public TableTranslator as()
+    {
+        return this.table.as();
+    }
+
+    @Override
+    public TableParallelProcessor parallel()
+    {
+        return this.table.parallel();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.table.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (obj == null)
+        {
+            return false;
+        }
+        if (this.getClass() != obj.getClass())
+        {
+            return false;
+        }
+        ReadOnlyTable other = (ReadOnlyTable) obj;
+        return this.table.equals(other.table);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.table.toString();
+    }
+
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+import org.omnaest.utils.table.domain.Row;
+
+/**
+ * Sized {@link Spliterator} over a range of row indexes, which creates the {@link Row}s only while traversing. Splitting halves the remaining range, so
+ * parallel streams are distributed evenly.<br>
+ * <br>
+ * The end of the range is bound late to the row size at the first traversal or split.
+ */
+class RowSpliterator implements Spliterator<Row>
+{
+    private final IntFunction<Row> rowFunction;
+    private final IntSupplier      rowSizeSupplier;
+    private int                    index;
+    private int                    fence;
+
+    public RowSpliterator(IntFunction<Row> rowFunction, IntSupplier rowSizeSupplier)
+    {
+        this(rowFunction, rowSizeSupplier, 0, -1);
+    }
+
+    private RowSpliterator(IntFunction<Row> rowFunction, IntSupplier rowSizeSupplier, int index, int fence)
+    {
+        super();
+        this.rowFunction = rowFunction;
+        this.rowSizeSupplier = rowSizeSupplier;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    private int getFence()
+    {
+        if (this.fence < 0)
+        {
+            this.fence = this.rowSizeSupplier.getAsInt();
+        }
+        return this.fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Row> action)
+    {
+        if (this.index < this.getFence())
+        {
+            action.accept(this.rowFunction.apply(this.index++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Row> action)
+    {
+        int fence = this.getFence();
+        while (this.index < fence)
+        {
+            action.accept(this.rowFunction.apply(this.index++));
+        }
+    }
+
+    @Override
+    public Spliterator<Row> trySplit()
+    {
+        int fence = this.getFence();
+        int middle = (this.index + fence) >>> 1;
+        if (middle <= this.index)
+        {
+            return null;
+        }
+
+        RowSpliterator prefix = new RowSpliterator(this.rowFunction, this.rowSizeSupplier, this.index, middle);
+        this.index = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize()
+    {
+        return this.getFence() - this.index;
+    }
+
+    @Override
+    public int characteristics()
+    {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+}
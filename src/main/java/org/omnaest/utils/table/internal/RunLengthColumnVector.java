@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link CompressedColumnVector} which stores runs of equal codes as pairs of code and exclusive end row index. Random access uses a binary search over the
+ * run ends, a sequential scan fills whole runs at once. This suits sorted or highly repetitive columns.
+ */
+class RunLengthColumnVector extends CompressedColumnVector
+{
+    private final int[] runEnds;
+    private final int[] runCodes;
+
+    public RunLengthColumnVector(int[] codes, int size, int numberOfRuns, List<String> dictionary, Map<String, Integer> valueToCode)
+    {
+        super(size, dictionary, valueToCode);
+        this.runEnds = new int[numberOfRuns];
+        this.runCodes = new int[numberOfRuns];
+
+        int run = -1;
+        for (int ii = 0; ii < size; ii++)
+        {
+            if (run < 0 || codes[ii] != this.runCodes[run])
+            {
+                run++;
+                this.runCodes[run] = codes[ii];
+            }
+            this.runEnds[run] = ii + 1;
+        }
+    }
+
+    /**
+     * Returns the number of runs of equal codes within the first size codes
+     * 
+     * @param codes
+     * @param size
+     * @return
+     */
+    public static int countRuns(int[] codes, int size)
+    {
+        int result = size > 0 ? 1 : 0;
+        for (int ii = 1; ii < size; ii++)
+        {
+            if (codes[ii] != codes[ii - 1])
+            {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int getCode(int rowIndex)
+    {
+        if (rowIndex >= this.size)
+        {
+            return NULL_CODE;
+        }
+
+        int position = Arrays.binarySearch(this.runEnds, rowIndex);
+        return this.runCodes[position >= 0 ? position + 1 : -position - 1];
+    }
+
+    @Override
+    public boolean containsValue(String value, int numberOfRows)
+    {
+        int code = this.getCode(value);
+        if (code < 0)
+        {
+            return false;
+        }
+        if (code == NULL_CODE && numberOfRows > this.size)
+        {
+            return true;
+        }
+        for (int run = 0; run < this.runEnds.length && (run == 0 || this.runEnds[run - 1] < numberOfRows); run++)
+        {
+            if (this.runCodes[run] == code)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void accumulateMemoryUsage(int columnIndex, int numberOfRows, MemoryUsage memoryUsage)
+    {
+        memoryUsage.addColumnBytes(columnIndex, MemoryUsage.sizeOfObject(5 * MemoryUsage.REFERENCE + Integer.BYTES))
+                   .addColumnBytes(columnIndex, 2 * MemoryUsage.sizeOfArray(this.runEnds.length, Integer.BYTES))
+                   .addCapacity(this.size, this.size);
+        DictionaryColumnVector.accumulateDictionaryMemoryUsage(columnIndex, this.dictionary, memoryUsage);
+    }
+
+    @Override
+    protected void decodeInto(int[] codes)
+    {
+        int start = 0;
+        for (int run = 0; run < this.runEnds.length; run++)
+        {
+            Arrays.fill(codes, start, this.runEnds[run], this.runCodes[run]);
+            start = this.runEnds[run];
+        }
+    }
+
+    @Override
+    public void copyInto(String[] values)
+    {
+        int start = 0;
+        for (int run = 0; run < this.runEnds.length && start < values.length; run++)
+        {
+            int end = Math.min(this.runEnds[run], values.length);
+            Arrays.fill(values, start, end, this.dictionary.get(this.runCodes[run]));
+            start = end;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+
+/**
+ * {@link TableStorage} of a scan, which holds only the values of the current row. Moving to the next row replaces the values, so a scan needs constant
+ * memory, independent of the number of rows.<br>
+ * <br>
+ * The rows before the current row are counted by {@link #getRowSize()}, but accessing their values throws an {@link IllegalStateException}.
+ * 
+ * @see TableScannerImpl
+ */
+public class ScanTableData implements TableStorage
+{
+    private final int numberOfColumns;
+    private String[]  values   = new String[0];
+    private int       rowIndex = -1;
+
+    public ScanTableData(int numberOfColumns)
+    {
+        super();
+        this.numberOfColumns = numberOfColumns;
+    }
+
+    /**
+     * Moves to the next row with the given values and returns its row index
+     * 
+     * @param values
+     * @return
+     */
+    public int next(String[] values)
+    {
+        this.values = values;
+        return ++this.rowIndex;
+    }
+
+    @Override
+    public String get(int rowIndex, int columnIndex)
+    {
+        this.validateCurrentRow(rowIndex);
+        if (columnIndex < 0 || columnIndex >= this.getColumnSize())
+        {
+            throw new IndexOutOfBoundsException();
+        }
+        return columnIndex < this.values.length ? this.values[columnIndex] : null;
+    }
+
+    private void validateCurrentRow(int rowIndex)
+    {
+        if (rowIndex < 0 || rowIndex > this.rowIndex)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+        if (rowIndex < this.rowIndex)
+        {
+            throw new IllegalStateException("Row " + rowIndex + " is not available anymore, since the scan has moved on to row " + this.rowIndex);
+        }
+    }
+
+    @Override
+    public void set(int rowIndex, int columnIndex, String value)
+    {
+        this.validateCurrentRow(rowIndex);
+        if (columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+        if (columnIndex >= this.values.length)
+        {
+            this.values = Arrays.copyOf(this.values, columnIndex + 1);
+        }
+        this.values[columnIndex] = value;
+    }
+
+    @Override
+    public int getRowSize()
+    {
+        return this.rowIndex + 1;
+    }
+
+    @Override
+    public int getColumnSize()
+    {
+        return Math.max(this.numberOfColumns, this.values.length);
+    }
+
+    @Override
+    public void setRowSize(int rowSize)
+    {
+        throw new UnsupportedOperationException("Rows can not be added to a scan");
+    }
+
+    @Override
+    public String[] getRow(int rowIndex)
+    {
+        this.validateCurrentRow(rowIndex);
+        return Arrays.copyOf(this.values, this.getColumnSize());
+    }
+
+    @Override
+    public String[] getColumn(int columnIndex)
+    {
+        throw new UnsupportedOperationException("A scan holds only the values of the current row");
+    }
+
+    @Override
+    public boolean containsValue(int columnIndex, String value)
+    {
+        throw new UnsupportedOperationException("A scan holds only the values of the current row");
+    }
+}
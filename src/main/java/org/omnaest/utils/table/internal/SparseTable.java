@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import org.omnaest.utils.table.Table;
+
+/**
+ * {@link Table} implementation based on a {@link SparseTableData} storage, which only allocates memory for non null cells.
+ * 
+ * @see Table#newSparseInstance()
+ */
+public class SparseTable extends ArrayTable
+{
+    public SparseTable()
+    {
+        super(new SparseTableData());
+    }
+}
@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row oriented {@link TableStorage} which only holds the non null cells. Every row keeps its values together with their column indices in two compact
+ * arrays sorted by column index, so the memory usage scales with the number of non null cells instead of rows times columns. Adding a new column does not
+ * touch any of the existing rows.<br>
+ * <br>
+ * Single cell access requires a binary search within the row, so this storage is meant for wide tables where most of the cells are empty.<br>
+ * <br>
+ * A {@link #snapshot()} is a read only {@link SparseTableData} sharing the current rows. The first write into a shared row afterwards copies only that row.
+ * 
+ * @see TableData
+ */
+public class SparseTableData implements TableStorage
+{
+    private static final int MAXIMUM_NUMBER_OF_SHARED_VALUES = 1 << 16;
+
+    private final boolean        readOnly;
+    private ArrayList<SparseRow> rows            = new ArrayList<>();
+    private int                  numberOfRows    = 0;
+    private int                  numberOfColumns = 0;
+    private BitSet               sharedRows      = new BitSet();
+
+    public SparseTableData()
+    {
+        super();
+        this.readOnly = false;
+    }
+
+    private SparseTableData(ArrayList<SparseRow> rows, int numberOfRows, int numberOfColumns)
+    {
+        super();
+        this.readOnly = true;
+        this.rows = rows;
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+    }
+
+    private static class SparseRow
+    {
+        private static final int[]    NO_COLUMN_INDEXES = new int[0];
+        private static final String[] NO_VALUES         = new String[0];
+
+        private int[]    columnIndexes = NO_COLUMN_INDEXES;
+        private String[] values        = NO_VALUES;
+        private int      size          = 0;
+
+        public String get(int columnIndex)
+        {
+            int position = Arrays.binarySearch(this.columnIndexes, 0, this.size, columnIndex);
+            return position >= 0 ? this.values[position] : null;
+        }
+
+        public void set(int columnIndex, String value)
+        {
+            int position = Arrays.binarySearch(this.columnIndexes, 0, this.size, columnIndex);
+            if (position >= 0)
+            {
+                if (value != null)
+                {
+                    this.values[position] = value;
+                }
+                else
+                {
+                    this.remove(position);
+                }
+            }
+            else if (value != null)
+            {
+                this.insert(-position - 1, columnIndex, value);
+            }
+        }
+
+        private void insert(int position, int columnIndex, String value)
+        {
+            if (this.size == this.columnIndexes.length)
+            {
+                int capacity = Math.max(4, this.size + (this.size >> 1));
+                this.columnIndexes = Arrays.copyOf(this.columnIndexes, capacity);
+                this.values = Arrays.copyOf(this.values, capacity);
+            }
+            System.arraycopy(this.columnIndexes, position, this.columnIndexes, position + 1, this.size - position);
+            System.arraycopy(this.values, position, this.values, position + 1, this.size - position);
+            this.columnIndexes[position] = columnIndex;
+            this.values[position] = value;
+            this.size++;
+        }
+
+        private void remove(int position)
+        {
+            System.arraycopy(this.columnIndexes, position + 1, this.columnIndexes, position, this.size - position - 1);
+            System.arraycopy(this.values, position + 1, this.values, position, this.size - position - 1);
+            this.size--;
+            this.values[this.size] = null;
+        }
+
+        public SparseRow copy()
+        {
+            SparseRow result = new SparseRow();
+            result.columnIndexes = Arrays.copyOf(this.columnIndexes, this.size);
+            result.values = Arrays.copyOf(this.values, this.size);
+            result.size = this.size;
+            return result;
+        }
+
+        public void trimToSize()
+        {
+            this.columnIndexes = Arrays.copyOf(this.columnIndexes, this.size);
+            this.values = Arrays.copyOf(this.values, this.size);
+        }
+
+        public void shareValues(List<Map<String, String>> columnToSharedValues)
+        {
+            for (int ii = 0; ii < this.size; ii++)
+            {
+                Map<String, String> sharedValues = columnToSharedValues.get(this.columnIndexes[ii]);
+                if (sharedValues.size() < MAXIMUM_NUMBER_OF_SHARED_VALUES)
+                {
+                    this.values[ii] = sharedValues.computeIfAbsent(this.values[ii], value -> value);
+                }
+            }
+        }
+
+        public void accumulateMemoryUsage(MemoryUsage memoryUsage)
+        {
+            int capacity = this.columnIndexes.length;
+            memoryUsage.addOverhead(MemoryUsage.sizeOfObject(2 * MemoryUsage.REFERENCE + Integer.BYTES))
+                       .addOverhead(MemoryUsage.sizeOfArray(capacity, Integer.BYTES) + MemoryUsage.sizeOfArray(capacity, MemoryUsage.REFERENCE)
+                               - (long) this.size * (Integer.BYTES + MemoryUsage.REFERENCE))
+                       .addCapacity(this.size, capacity);
+            for (int ii = 0; ii < this.size; ii++)
+            {
+                memoryUsage.addColumnBytes(this.columnIndexes[ii], Integer.BYTES + MemoryUsage.REFERENCE)
+                           .addColumnValue(this.columnIndexes[ii], this.values[ii]);
+            }
+        }
+
+        public void copyInto(String[] row)
+        {
+            for (int ii = 0; ii < this.size && this.columnIndexes[ii] < row.length; ii++)
+            {
+                row[this.columnIndexes[ii]] = this.values[ii];
+            }
+        }
+    }
+
+    @Override
+    public String get(int rowIndex, int columnIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+        this.validateIndexOutOfBoundsForColumn(columnIndex);
+
+        SparseRow row = this.getSparseRow(rowIndex);
+        return row != null ? row.get(columnIndex) : null;
+    }
+
+    private SparseRow getSparseRow(int rowIndex)
+    {
+        return rowIndex < this.rows.size() ? this.rows.get(rowIndex) : null;
+    }
+
+    private void validateIndexOutOfBoundsForRow(int rowIndex)
+    {
+        if (rowIndex < 0 || rowIndex >= this.numberOfRows)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void validateIndexOutOfBoundsForColumn(int columnIndex)
+    {
+        if (columnIndex < 0 || columnIndex >= this.numberOfColumns)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void validateWritable()
+    {
+        if (this.readOnly)
+        {
+            throw new UnsupportedOperationException("Snapshot of sparse table data is read only");
+        }
+    }
+
+    @Override
+    public void set(int rowIndex, int columnIndex, String value)
+    {
+        this.validateWritable();
+        if (rowIndex < 0 || columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        this.numberOfRows = Math.max(this.numberOfRows, rowIndex + 1);
+        this.numberOfColumns = Math.max(this.numberOfColumns, columnIndex + 1);
+
+        SparseRow row = this.getSparseRow(rowIndex);
+        if (row == null)
+        {
+            if (value == null)
+            {
+                // not yet allocated rows are empty already
+                return;
+            }
+            while (this.rows.size() <= rowIndex)
+            {
+                this.rows.add(null);
+            }
+            row = new SparseRow();
+            this.rows.set(rowIndex, row);
+        }
+        else if (this.sharedRows.get(rowIndex))
+        {
+            row = row.copy();
+            this.rows.set(rowIndex, row);
+            this.sharedRows.clear(rowIndex);
+        }
+        row.set(columnIndex, value);
+    }
+
+    @Override
+    public int getRowSize()
+    {
+        return this.numberOfRows;
+    }
+
+    @Override
+    public int getColumnSize()
+    {
+        return this.numberOfColumns;
+    }
+
+    @Override
+    public void setRowSize(int rowSize)
+    {
+        this.validateWritable();
+        this.numberOfRows = Math.max(this.numberOfRows, rowSize);
+    }
+
+    @Override
+    public void ensureCapacity(int expectedRows, int expectedColumns)
+    {
+        if (!this.readOnly)
+        {
+            this.rows.ensureCapacity(expectedRows);
+        }
+    }
+
+    /**
+     * Shrinks all rows to their number of values. Rows shared with a snapshot are left untouched.
+     */
+    @Override
+    public void trimToSize()
+    {
+        if (this.readOnly)
+        {
+            return;
+        }
+        for (int rowIndex = 0; rowIndex < this.rows.size(); rowIndex++)
+        {
+            SparseRow row = this.rows.get(rowIndex);
+            if (row != null && !this.sharedRows.get(rowIndex))
+            {
+                row.trimToSize();
+            }
+        }
+        this.rows.trimToSize();
+    }
+
+    /**
+     * Lets equal values within a column share a single {@link String} instance, as long as the number of distinct values of the column stays below
+     * {@value #MAXIMUM_NUMBER_OF_SHARED_VALUES}. Rows shared with a snapshot are left untouched.
+     */
+    @Override
+    public void compact()
+    {
+        if (this.readOnly)
+        {
+            return;
+        }
+        this.trimToSize();
+        List<Map<String, String>> columnToSharedValues = new ArrayList<>();
+        for (int columnIndex = 0; columnIndex < this.numberOfColumns; columnIndex++)
+        {
+            columnToSharedValues.add(new HashMap<>());
+        }
+
+        for (int rowIndex = 0; rowIndex < this.rows.size(); rowIndex++)
+        {
+            SparseRow row = this.rows.get(rowIndex);
+            if (row != null && !this.sharedRows.get(rowIndex))
+            {
+                row.shareValues(columnToSharedValues);
+            }
+        }
+    }
+
+    /**
+     * Returns a read only {@link SparseTableData} which shares the current rows. All of them are marked as shared, so they are copied before they are
+     * written again.
+     */
+    @Override
+    public TableStorage snapshot()
+    {
+        if (this.readOnly)
+        {
+            return this;
+        }
+        this.sharedRows.set(0, this.rows.size());
+        return new SparseTableData(new ArrayList<>(this.rows), this.numberOfRows, this.numberOfColumns);
+    }
+
+    @Override
+    public void accumulateMemoryUsage(MemoryUsage memoryUsage)
+    {
+        memoryUsage.addOverhead(MemoryUsage.sizeOfObject(2 * MemoryUsage.REFERENCE + 2 * Integer.BYTES + 1))
+                   .addOverhead(MemoryUsage.sizeOfBitSet(this.sharedRows))
+                   .addOverhead(MemoryUsage.sizeOfArrayList(this.rows.size()));
+        for (SparseRow row : this.rows)
+        {
+            if (row != null)
+            {
+                row.accumulateMemoryUsage(memoryUsage);
+            }
+        }
+    }
+
+    @Override
+    public String[] getRow(int rowIndex)
+    {
+        this.validateIndexOutOfBoundsForRow(rowIndex);
+
+        String[] result = new String[this.numberOfColumns];
+        SparseRow row = this.getSparseRow(rowIndex);
+        if (row != null)
+        {
+            row.copyInto(result);
+        }
+        return result;
+    }
+
+    @Override
+    public String[] getColumn(int columnIndex)
+    {
+        if (columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        String[] result = new String[this.numberOfRows];
+        if (columnIndex < this.numberOfColumns)
+        {
+            for (int ii = 0; ii < this.rows.size(); ii++)
+            {
+                SparseRow row = this.rows.get(ii);
+                result[ii] = row != null ? row.get(columnIndex) : null;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return TableStorage.contentHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof TableStorage))
+        {
+            return false;
+        }
+        return TableStorage.contentEquals(this, (TableStorage) obj);
+    }
+
+}
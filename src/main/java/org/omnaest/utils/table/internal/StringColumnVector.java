@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+
+/**
+ * {@link ColumnVector} which holds a {@link String} reference per row
+ */
+class StringColumnVector implements ColumnVector
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] values;
+
+    public StringColumnVector()
+    {
+        this(new String[INITIAL_CAPACITY]);
+    }
+
+    public StringColumnVector(String[] values)
+    {
+        super();
+        this.values = values;
+    }
+
+    @Override
+    public String get(int rowIndex)
+    {
+        return rowIndex < this.values.length ? this.values[rowIndex] : null;
+    }
+
+    @Override
+    public ColumnVector set(int rowIndex, String value)
+    {
+        if (rowIndex >= this.values.length)
+        {
+            if (value == null)
+            {
+                // not yet allocated cells are null already
+                return this;
+            }
+            this.values = Arrays.copyOf(this.values, Math.max(rowIndex + 1, this.values.length * 2));
+        }
+        this.values[rowIndex] = value;
+        return this;
+    }
+
+    @Override
+    public ColumnVector copy()
+    {
+        return new StringColumnVector(this.values.clone());
+    }
+
+    @Override
+    public void ensureCapacity(int numberOfRows)
+    {
+        if (numberOfRows > this.values.length)
+        {
+            this.values = Arrays.copyOf(this.values, numberOfRows);
+        }
+    }
+
+    @Override
+    public void trimToSize(int numberOfRows)
+    {
+        if (numberOfRows < this.values.length)
+        {
+            this.values = Arrays.copyOf(this.values, numberOfRows);
+        }
+    }
+
+    @Override
+    public void accumulateMemoryUsage(int columnIndex, int numberOfRows, MemoryUsage memoryUsage)
+    {
+        memoryUsage.addColumnBytes(columnIndex, MemoryUsage.sizeOfObject(MemoryUsage.REFERENCE) + MemoryUsage.sizeOfArray(this.values.length, MemoryUsage.REFERENCE))
+                   .addCapacity(Math.min(this.values.length, numberOfRows), this.values.length);
+        for (String value : this.values)
+        {
+            memoryUsage.addColumnValue(columnIndex, value);
+        }
+    }
+
+    @Override
+    public void copyInto(String[] values)
+    {
+        System.arraycopy(this.values, 0, values, 0, Math.min(this.values.length, values.length));
+    }
+}
@@ -15,19 +15,49 @@
  ******************************************************************************/
 package org.omnaest.utils.table.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
 
-public class TableData
+/**
+ * Row oriented {@link TableStorage}.<br>
+ * <br>
+ * The rows are held in fixed size blocks (chunks) of {@value #CHUNK_SIZE} rows. Appending rows only allocates a new chunk and a single row array is only
+ * allocated by the first write into that row, so existing data is never copied as a whole.<br>
+ * <br>
+ * A {@link #snapshot()} shares the chunks and rows with a {@link FrozenTableData}. The first write into a shared chunk or row afterwards copies only that
+ * chunk or row.
+ * 
+ * @see ColumnarTableData
+ */
+public class TableData implements TableStorage
 {
-    private String[][] data            = new String[1][1];
-    private int        numberOfRows    = 0;
-    private int        numberOfColumns = 0;
+    protected static final int CHUNK_SIZE_BITS                 = 10;
+    protected static final int CHUNK_SIZE                      = 1 << CHUNK_SIZE_BITS;
+    private static final int   CHUNK_SIZE_MASK                 = CHUNK_SIZE - 1;
+    private static final int   MAXIMUM_NUMBER_OF_SHARED_VALUES = 1 << 16;
+
+    private ArrayList<String[][]> chunks          = new ArrayList<>();
+    private int                   numberOfRows    = 0;
+    private int                   numberOfColumns = 0;
+    private int                   expectedColumns = 0;
+    private BitSet                sharedChunks    = new BitSet();
+    private BitSet                sharedRows      = new BitSet();
 
+    @Override
     public String get(int rowIndex, int columnIndex)
     {
         this.validateIndexOutOfBounds(rowIndex, columnIndex);
-        this.extendRawArrayIfNecessary(rowIndex, columnIndex);
-        return this.data[rowIndex][columnIndex];
+        String[] row = this.getRawRow(rowIndex);
+        return row != null && columnIndex < row.length ? row[columnIndex] : null;
+    }
+
+    private String[] getRawRow(int rowIndex)
+    {
+        int chunkIndex = rowIndex >>> CHUNK_SIZE_BITS;
+        return chunkIndex < this.chunks.size() ? this.chunks.get(chunkIndex)[rowIndex & CHUNK_SIZE_MASK] : null;
     }
 
     private void validateIndexOutOfBounds(int rowIndex, int columnIndex)
@@ -52,31 +82,85 @@ public class TableData
         }
     }
 
+    @Override
     public void set(int rowIndex, int columnIndex, String value)
     {
+        if (rowIndex < 0 || columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
         this.applyNewNumberOfRowsAndColumns(rowIndex, columnIndex);
-        this.extendRawArrayIfNecessary(rowIndex, columnIndex);
-        this.data[rowIndex][columnIndex] = value;
+
+        String[] row = this.getRawRow(rowIndex);
+        if (row == null || columnIndex >= row.length)
+        {
+            if (value == null)
+            {
+                // not yet allocated cells are null already
+                return;
+            }
+            row = this.extendRow(rowIndex, row, columnIndex);
+        }
+        else if (this.sharedRows.get(rowIndex))
+        {
+            row = this.replaceRow(rowIndex, row.clone());
+        }
+        row[columnIndex] = value;
+    }
+
+    private String[] extendRow(int rowIndex, String[] row, int columnIndex)
+    {
+        String[] newRow;
+        if (row == null)
+        {
+            newRow = new String[Math.max(Math.max(columnIndex + 1, this.numberOfColumns), this.expectedColumns)];
+        }
+        else
+        {
+            newRow = Arrays.copyOf(row, Math.max(Math.max(columnIndex + 1, this.numberOfColumns), row.length + (row.length >> 1)));
+        }
+        return this.replaceRow(rowIndex, newRow);
     }
 
-    private void extendRawArrayIfNecessary(int rowIndex, int columnIndex)
+    /**
+     * Puts the given row array, which must not be shared with a snapshot, at the given row index
+     * 
+     * @param rowIndex
+     * @param row
+     * @return
+     */
+    private String[] replaceRow(int rowIndex, String[] row)
     {
-        while (rowIndex >= this.getRawRowSize(this.data))
+        this.getWritableChunk(rowIndex >>> CHUNK_SIZE_BITS)[rowIndex & CHUNK_SIZE_MASK] = row;
+        this.sharedRows.clear(rowIndex);
+        return row;
+    }
+
+    private String[][] getWritableChunk(int chunkIndex)
+    {
+        while (chunkIndex >= this.chunks.size())
         {
-            this.extendRows();
+            this.chunks.add(new String[CHUNK_SIZE][]);
         }
 
-        while (columnIndex >= this.getRawColumnSize(this.data))
+        String[][] chunk = this.chunks.get(chunkIndex);
+        if (this.sharedChunks.get(chunkIndex))
         {
-            this.extendColumns();
+            chunk = chunk.clone();
+            this.chunks.set(chunkIndex, chunk);
+            this.sharedChunks.clear(chunkIndex);
         }
+        return chunk;
     }
 
+    @Override
     public int getRowSize()
     {
         return this.numberOfRows;
     }
 
+    @Override
     public int getColumnSize()
     {
         return this.numberOfColumns;
@@ -88,77 +172,138 @@ public class TableData
         this.numberOfColumns = Math.max(this.numberOfColumns, columnIndex + 1);
     }
 
-    private void extendRows()
+    @Override
+    public void setRowSize(int rowSize)
     {
-        String[][] oldData = this.data;
-
-        int newRowSize = this.getRawRowSize(oldData) * 2;
-        int columnSize = this.getRawColumnSize(oldData);
-        this.data = new String[newRowSize][columnSize];
+        this.applyNewNumberOfRowsAndColumns(rowSize - 1, this.getColumnSize() - 1);
+    }
 
-        this.applyOldData(oldData);
+    /**
+     * Reserves the chunks for the expected rows and allocates newly written rows with at least the expected number of columns
+     */
+    @Override
+    public void ensureCapacity(int expectedRows, int expectedColumns)
+    {
+        this.chunks.ensureCapacity((expectedRows + CHUNK_SIZE - 1) >>> CHUNK_SIZE_BITS);
+        this.expectedColumns = Math.max(this.expectedColumns, expectedColumns);
     }
 
-    private void applyOldData(String[][] oldData)
+    /**
+     * Shrinks all rows to the current number of columns. Rows shared with a snapshot are left untouched, since trimming them would duplicate them.
+     */
+    @Override
+    public void trimToSize()
     {
-        for (int ii = 0; ii < this.getRawRowSize(oldData); ii++)
+        for (int rowIndex = 0; rowIndex < this.numberOfRows; rowIndex++)
         {
-            for (int jj = 0; jj < this.getRawColumnSize(oldData); jj++)
+            String[] row = this.getRawRow(rowIndex);
+            if (row != null && row.length > this.numberOfColumns && !this.sharedRows.get(rowIndex))
             {
-                this.data[ii][jj] = oldData[ii][jj];
+                this.replaceRow(rowIndex, Arrays.copyOf(row, this.numberOfColumns));
             }
         }
+        this.chunks.trimToSize();
+        this.expectedColumns = 0;
     }
 
-    private int getRawColumnSize(String[][] oldData)
-    {
-        return oldData[0].length;
-    }
-
-    private int getRawRowSize(String[][] oldData)
+    /**
+     * Trims the rows to size and lets equal values within a column share a single {@link String} instance, as long as the number of distinct values of the
+     * column stays below {@value #MAXIMUM_NUMBER_OF_SHARED_VALUES}. Rows shared with a snapshot are left untouched.
+     */
+    @Override
+    public void compact()
     {
-        return oldData.length;
+        this.trimToSize();
+        for (int columnIndex = 0; columnIndex < this.numberOfColumns; columnIndex++)
+        {
+            Map<String, String> sharedValues = new HashMap<>();
+            for (int rowIndex = 0; rowIndex < this.numberOfRows && sharedValues.size() < MAXIMUM_NUMBER_OF_SHARED_VALUES; rowIndex++)
+            {
+                String[] row = this.getRawRow(rowIndex);
+                if (row != null && columnIndex < row.length && row[columnIndex] != null && !this.sharedRows.get(rowIndex))
+                {
+                    row[columnIndex] = sharedValues.computeIfAbsent(row[columnIndex], value -> value);
+                }
+            }
+        }
     }
 
-    private void extendColumns()
+    /**
+     * Returns a {@link FrozenTableData} which shares the current chunks and rows. All of them are marked as shared, so they are copied before they are
+     * written again.
+     */
+    @Override
+    public TableStorage snapshot()
     {
-        String[][] oldData = this.data;
-
-        int rowSize = this.getRawRowSize(oldData);
-        int newColumnSize = this.getRawColumnSize(oldData) * 2;
-        this.data = new String[rowSize][newColumnSize];
-
-        this.applyOldData(oldData);
+        this.sharedChunks.set(0, this.chunks.size());
+        this.sharedRows.set(0, this.numberOfRows);
+        return new FrozenTableData(this.chunks.toArray(new String[this.chunks.size()][][]), this.numberOfRows, this.numberOfColumns);
     }
 
-    public void setRowSize(int rowSize)
+    @Override
+    public void accumulateMemoryUsage(MemoryUsage memoryUsage)
     {
-        this.applyNewNumberOfRowsAndColumns(rowSize - 1, this.getColumnSize() - 1);
+        memoryUsage.addOverhead(MemoryUsage.sizeOfObject(3 * MemoryUsage.REFERENCE + 3 * Integer.BYTES))
+                   .addOverhead(MemoryUsage.sizeOfBitSet(this.sharedChunks) + MemoryUsage.sizeOfBitSet(this.sharedRows))
+                   .addOverhead(MemoryUsage.sizeOfArrayList(this.chunks.size()))
+                   .addOverhead(this.chunks.size() * MemoryUsage.sizeOfArray(CHUNK_SIZE, MemoryUsage.REFERENCE));
+        for (int rowIndex = 0; rowIndex < this.numberOfRows; rowIndex++)
+        {
+            String[] row = this.getRawRow(rowIndex);
+            if (row != null)
+            {
+                int usedCapacity = Math.min(row.length, this.numberOfColumns);
+                memoryUsage.addOverhead(MemoryUsage.sizeOfArray(row.length, MemoryUsage.REFERENCE) - (long) usedCapacity * MemoryUsage.REFERENCE)
+                           .addCapacity(usedCapacity, row.length);
+                for (int columnIndex = 0; columnIndex < usedCapacity; columnIndex++)
+                {
+                    memoryUsage.addColumnBytes(columnIndex, MemoryUsage.REFERENCE)
+                               .addColumnValue(columnIndex, row[columnIndex]);
+                }
+            }
+        }
     }
 
+    @Override
     public String[] getRow(int rowIndex)
     {
         this.validateIndexOutOfBoundsForRow(rowIndex);
 
         String[] result = new String[this.numberOfColumns];
-        for (int ii = 0; ii < result.length; ii++)
+        String[] row = this.getRawRow(rowIndex);
+        if (row != null)
         {
-            result[ii] = this.data[rowIndex][ii];
+            System.arraycopy(row, 0, result, 0, Math.min(row.length, result.length));
         }
         return result;
     }
 
     @Override
-    public int hashCode()
+    public String[] getColumn(int columnIndex)
     {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + Arrays.deepHashCode(this.data);
-        result = prime * result + this.numberOfColumns;
-        result = prime * result + this.numberOfRows;
+        if (columnIndex < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        String[] result = new String[this.numberOfRows];
+        if (columnIndex < this.numberOfColumns)
+        {
+            for (int ii = 0; ii < result.length; ii++)
+            {
+                String[] row = this.getRawRow(ii);
+                result[ii] = row != null && columnIndex < row.length ? row[columnIndex] : null;
+            }
+        }
         return result;
     }
 
+    @Override
+    public int hashCode()
+    {
+        return TableStorage.contentHashCode(this);
+    }
+
     @Override
     public boolean equals(Object obj)
     {
@@ -166,28 +311,11 @@ public class TableData
         {
             return true;
         }
-        if (obj == null)
-        {
-            return false;
-        }
-        if (this.getClass() != obj.getClass())
-        {
-            return false;
-        }
-        TableData other = (TableData) obj;
-        if (!Arrays.deepEquals(this.data, other.data))
-        {
-            return false;
-        }
-        if (this.numberOfColumns != other.numberOfColumns)
-        {
-            return false;
-        }
-        if (this.numberOfRows != other.numberOfRows)
+        if (!(obj instanceof TableStorage))
         {
             return false;
         }
-        return true;
+        return TableStorage.contentEquals(this, (TableStorage) obj);
     }
 
 }
@@ -15,20 +15,25 @@
  ******************************************************************************/
 package org.omnaest.utils.table.internal;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.omnaest.utils.bitset.Bits;
 import org.omnaest.utils.csv.CSVUtils;
@@ -38,10 +43,11 @@ import org.omnaest.utils.exception.RuntimeIOException;
 import org.omnaest.utils.table.Table;
 import org.omnaest.utils.table.components.TableDeserializer;
 
-import lombok.Getter;
-
 public class TableDeserializerImpl implements TableDeserializer
 {
+    private static final int PEEK_LIMIT                = 1 << 16;
+    private static final int MAXIMUM_ROW_CAPACITY_HINT = 1 << 20;
+
     private Table table;
 
     public TableDeserializerImpl(Table table)
@@ -102,22 +108,25 @@ public class TableDeserializerImpl implements TableDeserializer
             @Override
             public Table from(String csv)
             {
-                try
+                CsvReaderOptionsImpl options = this.determineOptions();
+                int numberOfColumns = options.getColumns() != null ? options.getColumns()
+                                                                            .size()
+                        : estimateNumberOfColumns(csv, options.getCsvFormat()
+                                                              .getDelimiter());
+                ensureCapacity(table, estimateNumberOfRows(csv), numberOfColumns, options);
+                try (BufferedReader reader = new BufferedReader(new StringReader(StringUtils.defaultString(csv))))
                 {
-                    return this.from(parser -> parser.from(csv)
-                                                     .withFormat(this.determineCsvFormat())
-                                                     .includeInconsistentRecords());
+                    return readCsv(table, reader, options);
                 }
                 catch (IOException e)
                 {
-                    throw new IllegalStateException(e);
+                    throw new RuntimeIOException(e);
                 }
             }
 
-            private CSVFormat determineCsvFormat()
+            private CsvReaderOptionsImpl determineOptions()
             {
-                return CsvReaderOptionsImpl.newInstanceAndAccept(optionsConsumer)
-                                           .getCsvFormat();
+                return CsvReaderOptionsImpl.newInstanceAndAccept(optionsConsumer);
             }
 
             @Override
@@ -125,7 +134,8 @@ public class TableDeserializerImpl implements TableDeserializer
             {
                 return table.load()
                             .fromRows(parserFunction.apply(CSVUtils.parse())
-                                                    .get());
+                                                    .get())
+                            .compact();
             }
 
             @Override
@@ -133,7 +143,7 @@ public class TableDeserializerImpl implements TableDeserializer
             {
                 try
                 {
-                    return this.from(IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+                    return readCsv(table, new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)), this.determineOptions());
                 }
                 catch (IOException e)
                 {
@@ -144,9 +154,11 @@ public class TableDeserializerImpl implements TableDeserializer
             @Override
             public Table from(File file)
             {
-                try
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
                 {
-                    return this.from(IOUtils.toBufferedInputStream(new FileInputStream(file)));
+                    CsvReaderOptionsImpl options = this.determineOptions();
+                    ensureCapacity(table, reader, file.length(), options);
+                    return readCsv(table, reader, options);
                 }
                 catch (IOException e)
                 {
@@ -154,6 +166,32 @@ public class TableDeserializerImpl implements TableDeserializer
                 }
             }
 
+            @Override
+            public Table fromParallel(File file)
+            {
+                CsvReaderOptionsImpl options = this.determineOptions();
+                if (!ParallelCsvReader.supports(options.getCsvFormat()))
+                {
+                    return this.from(file);
+                }
+
+                RecordWriter recordWriter = new RecordWriter(table);
+                Function<List<String>, CsvProjection> headerFunction = headerNames ->
+                {
+                    CsvProjection projection = CsvProjection.of(headerNames, options.getCsvFormat(), options.getColumns());
+                    recordWriter.acceptColumnTitles(projection.getColumnTitles());
+                    return projection;
+                };
+                ParallelCsvReader parallelCsvReader = new ParallelCsvReader(options.getCsvFormat(), options.getForkJoinPool());
+                try (Stream<String[]> records = parallelCsvReader.read(file, headerFunction,
+                                                                       columnTitles -> CsvRecordStreams.newFilter(columnTitles, options.getFilter())))
+                {
+                    CsvRecordStreams.applyLimits(records, options)
+                                    .forEachOrdered(recordWriter);
+                }
+                return table.compact();
+            }
+
             @Override
             public Optional<Table> fromIfExists(File file)
             {
@@ -169,6 +207,166 @@ public class TableDeserializerImpl implements TableDeserializer
         };
     }
 
+    /**
+     * Parses the records one by one from the given {@link BufferedReader} and writes their values directly into the rows of the given {@link Table}, so
+     * neither the whole content nor all parsed records are held in memory at any time. The header names are resolved to column indexes once, values of a
+     * record beyond the header are ignored. Records which are filtered, skipped or not sampled never become rows of the {@link Table}.
+     * 
+     * @param table
+     * @param reader
+     * @param options
+     * @return
+     * @throws IOException
+     */
+    private static Table readCsv(Table table, BufferedReader reader, CsvReaderOptionsImpl options) throws IOException
+    {
+        CsvRecordReader recordReader = CsvRecordReader.of(reader, options.getCsvFormat());
+        CsvProjection projection = CsvProjection.of(Arrays.asList(Optional.ofNullable(recordReader.next(null))
+                                                                          .orElse(new String[0])),
+                                                    options.getCsvFormat(), options.getColumns());
+        RecordWriter recordWriter = new RecordWriter(table);
+        recordWriter.acceptColumnTitles(projection.getColumnTitles());
+        CsvRecordStreams.applyLimits(CsvRecordStreams.of(recordReader, projection)
+                                                     .filter(CsvRecordStreams.newFilter(projection.getColumnTitles(), options.getFilter())),
+                                     options)
+                        .forEachOrdered(recordWriter);
+        return table.compact();
+    }
+
+    /**
+     * Writes the values of projected csv records into new rows of a {@link Table}. The column titles are resolved to the column indexes of the
+     * {@link Table} once, missing column titles are added. Values of a record beyond the column titles are ignored.
+     */
+    private static class RecordWriter implements Consumer<String[]>
+    {
+        private final Table table;
+        private int[]       columnIndexes   = new int[0];
+        private int         numberOfColumns = 0;
+
+        public RecordWriter(Table table)
+        {
+            super();
+            this.table = table;
+        }
+
+        /**
+         * Resolves the column indexes of the given column titles of the projected records
+         * 
+         * @param columnTitles
+         */
+        public void acceptColumnTitles(List<String> columnTitles)
+        {
+            List<String> tableColumnTitles = this.table.getColumnTitles();
+            Map<String, Integer> titleToColumnIndex = new HashMap<>();
+            for (int ii = 0; ii < tableColumnTitles.size(); ii++)
+            {
+                titleToColumnIndex.put(tableColumnTitles.get(ii), ii);
+            }
+            int numberOfTableColumns = tableColumnTitles.size();
+
+            this.columnIndexes = new int[columnTitles.size()];
+            for (int ii = 0; ii < this.columnIndexes.length; ii++)
+            {
+                String columnTitle = columnTitles.get(ii);
+                Integer columnIndex = titleToColumnIndex.get(columnTitle);
+                if (columnIndex == null)
+                {
+                    this.table.addColumnTitle(columnTitle);
+                    columnIndex = numberOfTableColumns++;
+                    titleToColumnIndex.put(columnTitle, columnIndex);
+                }
+                this.columnIndexes[ii] = columnIndex;
+                this.numberOfColumns = Math.max(this.numberOfColumns, columnIndex + 1);
+            }
+            this.table.ensureCapacity(0, this.numberOfColumns);
+        }
+
+        @Override
+        public void accept(String[] record)
+        {
+            String[] values = new String[this.numberOfColumns];
+            for (int ii = 0; ii < Math.min(record.length, this.columnIndexes.length); ii++)
+            {
+                values[this.columnIndexes[ii]] = record[ii];
+            }
+            this.table.newRow()
+                      .setValues(values);
+        }
+    }
+
+    /**
+     * Estimates the number of rows by the line breaks of the given csv. Line breaks within quoted values make this an upper bound.
+     * 
+     * @param csv
+     * @return
+     */
+    private static int estimateNumberOfRows(String csv)
+    {
+        return StringUtils.countMatches(csv, '\n');
+    }
+
+    private static int estimateNumberOfColumns(String csv, char delimiter)
+    {
+        return csv != null ? StringUtils.countMatches(StringUtils.substringBefore(csv, "\n"), delimiter) + 1 : 0;
+    }
+
+    /**
+     * Reserves the capacity of the given {@link Table} for the csv content of a file with the given length in bytes. The first
+     * {@link #PEEK_LIMIT} characters are peeked and the {@link BufferedReader} is reset afterwards, so nothing of the content is consumed. The number of
+     * columns is taken from the delimiters of the header, the number of rows is estimated by the remaining length divided by the average length of the
+     * complete records within the peeked characters. Without any complete record no capacity is reserved. The estimate is capped by
+     * {@link #MAXIMUM_ROW_CAPACITY_HINT}, since the storages allocate the reserved capacity eagerly.
+     * 
+     * @param table
+     * @param reader
+     * @param length
+     * @param options
+     * @throws IOException
+     */
+    private static void ensureCapacity(Table table, BufferedReader reader, long length, CsvReaderOptionsImpl options) throws IOException
+    {
+        char[] buffer = new char[PEEK_LIMIT];
+        int numberOfCharacters = 0;
+        reader.mark(buffer.length);
+        try
+        {
+            int numberOfReadCharacters = 0;
+            while (numberOfReadCharacters >= 0 && numberOfCharacters < buffer.length)
+            {
+                numberOfReadCharacters = reader.read(buffer, numberOfCharacters, buffer.length - numberOfCharacters);
+                numberOfCharacters += Math.max(0, numberOfReadCharacters);
+            }
+        }
+        finally
+        {
+            reader.reset();
+        }
+
+        String content = new String(buffer, 0, numberOfCharacters);
+        int endOfHeader = content.indexOf('\n');
+        int endOfRecords = content.lastIndexOf('\n');
+        if (endOfHeader < 0 || endOfRecords == endOfHeader)
+        {
+            return;
+        }
+
+        String header = content.substring(0, endOfHeader);
+        String records = content.substring(endOfHeader + 1, endOfRecords + 1);
+        long headerLength = header.getBytes(StandardCharsets.UTF_8).length + 1;
+        long recordLength = Math.max(1, records.getBytes(StandardCharsets.UTF_8).length / StringUtils.countMatches(records, '\n'));
+        int numberOfColumns = options.getColumns() != null ? options.getColumns()
+                                                                    .size()
+                : estimateNumberOfColumns(header, options.getCsvFormat()
+                                                         .getDelimiter());
+        ensureCapacity(table, (length - headerLength) / recordLength, numberOfColumns, options);
+    }
+
+    private static void ensureCapacity(Table table, long numberOfRecords, int numberOfColumns, CsvReaderOptionsImpl options)
+    {
+        int numberOfRows = options.determineMaximumNumberOfRows((int) Math.min(numberOfRecords, MAXIMUM_ROW_CAPACITY_HINT));
+        table.ensureCapacity(numberOfRows, numberOfColumns);
+    }
+
     @Override
     public Reader asFixColumnSizeFormatted()
     {
@@ -177,96 +375,86 @@ public class TableDeserializerImpl implements TableDeserializer
             @Override
             public Table from(String content)
             {
-                List<String> lines = Optional.ofNullable(content)
-                                             .map(String::lines)
-                                             .orElse(Stream.empty())
-                                             .filter(StringUtils::isNotBlank)
-                                             .toList();
-
-                Bits delimiterBits = lines.stream()
-                                          .map(line ->
-                                          {
-                                              Bits bits = Bits.newInstance();
-
-                                              for (int i = 0; i < line.length(); i++)
-                                              {
-                                                  if (line.charAt(i) == ' ')
-                                                  {
-                                                      bits.setIndex(i);
-                                                  }
-                                              }
-
-                                              return bits;
-                                          })
-                                          .reduce(Bits::and)
-                                          .orElse(Bits.newInstance());
-
-                List<List<String>> tokenizedLines = lines.stream()
-                                                         .map(line -> org.omnaest.utils.StringUtils.splitToStreamByBitMask(line, delimiterBits)
-                                                                                                   .map(StringUtils::trim)
-                                                                                                   .toList())
-                                                         .toList();
-
-                return Table.newInstance()
-                            .addColumnTitles(tokenizedLines.stream()
-                                                           .findFirst()
-                                                           .orElse(Collections.emptyList()))
-                            .processAndAddRow(tokenizedLines.stream()
-                                                            .skip(1),
-                                              (tokenizedLine, row) -> row.addValues(tokenizedLine));
+                return readFixColumnSizeFormatted(() -> Optional.ofNullable(content)
+                                                               .map(String::lines)
+                                                               .orElse(Stream.empty()));
             }
 
             @Override
             public Table from(InputStream inputStream)
             {
-                try
-                {
-                    return this.from(IOUtils.toString(inputStream, StandardCharsets.UTF_8));
-                }
-                catch (IOException e)
-                {
-                    throw new RuntimeIOException(e);
-                }
+                // the column boundaries are only known after all lines have been read, so the lines of a non repeatable stream have to be kept once
+                List<String> lines = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)).lines()
+                                                                                                                   .filter(StringUtils::isNotBlank)
+                                                                                                                   .toList();
+                return readFixColumnSizeFormatted(lines::stream);
             }
 
             @Override
             public Table from(File file)
             {
-                try
+                return readFixColumnSizeFormatted(() ->
                 {
-                    return this.from(IOUtils.toBufferedInputStream(new FileInputStream(file)));
-                }
-                catch (IOException e)
-                {
-                    throw new RuntimeIOException(e);
-                }
+                    try
+                    {
+                        return Files.lines(file.toPath(), StandardCharsets.UTF_8);
+                    }
+                    catch (IOException e)
+                    {
+                        throw new RuntimeIOException(e);
+                    }
+                });
             }
         };
     }
 
-    private static class CsvReaderOptionsImpl implements CsvReaderOptions
+    /**
+     * Reads the lines twice, first to determine the character positions which are blank in every line and then to split the lines at these positions.
+     * Neither pass holds more than a single line in memory.
+     * 
+     * @param lines
+     * @return
+     */
+    private static Table readFixColumnSizeFormatted(Supplier<Stream<String>> lines)
     {
-        @Getter
-        private CSVFormat csvFormat = TableSerializerImpl.DEFAULT_CSV_FORMAT.withFirstRecordAsHeader();
-
-        @Override
-        public CsvReaderOptions withDelimiter(char delimiter)
+        Bits delimiterBits;
+        try (Stream<String> stream = lines.get())
         {
-            this.csvFormat = this.csvFormat.withDelimiter(delimiter);
-            return this;
+            delimiterBits = stream.filter(StringUtils::isNotBlank)
+                                  .map(line ->
+                                  {
+                                      Bits bits = Bits.newInstance();
+
+                                      for (int i = 0; i < line.length(); i++)
+                                      {
+                                          if (line.charAt(i) == ' ')
+                                          {
+                                              bits.setIndex(i);
+                                          }
+                                      }
+
+                                      return bits;
+                                  })
+                                  .reduce(Bits::and)
+                                  .orElse(Bits.newInstance());
         }
 
-        public static CsvReaderOptionsImpl newInstanceAndAccept(Consumer<CsvReaderOptions> csvReaderOptionsConsumer)
+        Table table = Table.newInstance();
+        try (Stream<String> stream = lines.get())
         {
-            CsvReaderOptionsImpl instance = new CsvReaderOptionsImpl();
-
-            if (csvReaderOptionsConsumer != null)
+            Iterator<List<String>> tokenizedLines = stream.filter(StringUtils::isNotBlank)
+                                                          .map(line -> org.omnaest.utils.StringUtils.splitToStreamByBitMask(line, delimiterBits)
+                                                                                                    .map(StringUtils::trim)
+                                                                                                    .toList())
+                                                          .iterator();
+            if (tokenizedLines.hasNext())
             {
-                csvReaderOptionsConsumer.accept(instance);
+                table.addColumnTitles(tokenizedLines.next());
             }
-
-            return instance;
+            tokenizedLines.forEachRemaining(tokenizedLine -> table.newRow()
+                                                                  .addValues(tokenizedLine));
         }
+        return table;
     }
 
 }
@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import org.omnaest.utils.ComparatorUtils;
+import org.omnaest.utils.PredicateUtils;
+import org.omnaest.utils.table.Table;
+import org.omnaest.utils.table.components.TableParallelProcessor;
+import org.omnaest.utils.table.components.TableTranslator.SortOrder;
+import org.omnaest.utils.table.domain.Row;
+
+public class TableParallelProcessorImpl implements TableParallelProcessor
+{
+    private static final int MINIMUM_PARTITION_SIZE = 1024;
+    private static final int PARTITIONS_PER_THREAD  = 4;
+
+    private Table        table;
+    private ForkJoinPool forkJoinPool  = ForkJoinPool.commonPool();
+    private int          partitionSize = -1;
+
+    public TableParallelProcessorImpl(Table table)
+    {
+        super();
+        this.table = table;
+    }
+
+    @Override
+    public TableParallelProcessor withForkJoinPool(ForkJoinPool forkJoinPool)
+    {
+        this.forkJoinPool = forkJoinPool;
+        return this;
+    }
+
+    @Override
+    public TableParallelProcessor withPartitionSize(int partitionSize)
+    {
+        if (partitionSize <= 0)
+        {
+            throw new IllegalArgumentException("Partition size must be positive: " + partitionSize);
+        }
+        this.partitionSize = partitionSize;
+        return this;
+    }
+
+    @Override
+    public Table filteredRows(Predicate<Row> rowInclusionFilter)
+    {
+        Predicate<Row> filter = Optional.ofNullable(rowInclusionFilter)
+                                        .orElse(PredicateUtils.allMatching());
+        List<List<String>> rows = this.process(row -> filter.test(row) ? row.asList() : null);
+        return this.newTable(this.table.getColumnTitles(), rows);
+    }
+
+    @Override
+    public <C extends Comparable<C>> Table sortedBy(Function<Row, C> rowSortingFunction, SortOrder sortOrder)
+    {
+        Comparator<Row> comparator = SortOrder.ASCENDING.equals(sortOrder) ? ComparatorUtils.builder()
+                                                                                            .of(rowSortingFunction)
+                                                                                            .natural()
+                : ComparatorUtils.builder()
+                                 .of(rowSortingFunction)
+                                 .natural()
+                                 .reversed();
+        List<Row> rows = this.process((startInclusive, endExclusive) ->
+        {
+            List<Row> partition = new ArrayList<>(endExclusive - startInclusive);
+            for (int rowIndex = startInclusive; rowIndex < endExclusive; rowIndex++)
+            {
+                partition.add(this.table.getRow(rowIndex));
+            }
+            partition.sort(comparator);
+            return partition;
+        }, (left, right) -> mergeSorted(left, right, comparator));
+        return this.newTable(this.table.getColumnTitles(), rows.stream()
+                                                               .map(Row::asList)
+                                                               .collect(Collectors.toList()));
+    }
+
+    /**
+     * Merges two sorted lists. Equal elements of the left list come first, so the merge is stable.
+     * 
+     * @param left
+     * @param right
+     * @param comparator
+     * @return
+     */
+    private static <E> List<E> mergeSorted(List<E> left, List<E> right, Comparator<E> comparator)
+    {
+        List<E> result = new ArrayList<>(left.size() + right.size());
+        int leftIndex = 0;
+        int rightIndex = 0;
+        while (leftIndex < left.size() && rightIndex < right.size())
+        {
+            if (comparator.compare(right.get(rightIndex), left.get(leftIndex)) < 0)
+            {
+                result.add(right.get(rightIndex++));
+            }
+            else
+            {
+                result.add(left.get(leftIndex++));
+            }
+        }
+        result.addAll(left.subList(leftIndex, left.size()));
+        result.addAll(right.subList(rightIndex, right.size()));
+        return result;
+    }
+
+    @Override
+    public <K, V> Map<K, List<V>> group(Function<Row, K> keyMapper, Function<Row, V> valueMapper)
+    {
+        return this.process((startInclusive, endExclusive) ->
+        {
+            Map<K, List<V>> partition = new HashMap<>();
+            for (int rowIndex = startInclusive; rowIndex < endExclusive; rowIndex++)
+            {
+                Row row = this.table.getRow(rowIndex);
+                K key = keyMapper.apply(row);
+                if (key != null)
+                {
+                    partition.computeIfAbsent(key, k -> new ArrayList<>())
+                             .add(valueMapper.apply(row));
+                }
+            }
+            return partition;
+        }, (left, right) ->
+        {
+            right.forEach((key, values) -> left.merge(key, values, (leftValues, rightValues) ->
+            {
+                leftValues.addAll(rightValues);
+                return leftValues;
+            }));
+            return left;
+        });
+    }
+
+    @Override
+    public Table cellContentMappedTable(UnaryOperator<String> cellContentMapper)
+    {
+        List<String> columnTitles = this.table.getEffectiveColumnTitles()
+                                              .stream()
+                                              .map(cellContentMapper)
+                                              .collect(Collectors.toList());
+        List<List<String>> rows = this.process(row -> row.asList()
+                                                         .stream()
+                                                         .map(cellContentMapper)
+                                                         .collect(Collectors.toList()));
+        return this.newTable(columnTitles, rows);
+    }
+
+    @Override
+    public <R> List<R> mappedRows(Function<Row, R> rowMapper)
+    {
+        return this.process((startInclusive, endExclusive) ->
+        {
+            List<R> partition = new ArrayList<>(endExclusive - startInclusive);
+            for (int rowIndex = startInclusive; rowIndex < endExclusive; rowIndex++)
+            {
+                partition.add(rowMapper.apply(this.table.getRow(rowIndex)));
+            }
+            return partition;
+        }, TableParallelProcessorImpl::concat);
+    }
+
+    private Table newTable(List<String> columnTitles, List<List<String>> rows)
+    {
+        Table result = Table.newInstance(rows.size(), columnTitles.size())
+                            .addColumnTitles(columnTitles);
+        rows.forEach(result::addRow);
+        return result;
+    }
+
+    /**
+     * Maps every {@link Row} and returns the non null results in row order
+     * 
+     * @param rowMapper
+     * @return
+     */
+    private <R> List<R> process(Function<Row, R> rowMapper)
+    {
+        return this.process((startInclusive, endExclusive) ->
+        {
+            List<R> partition = new ArrayList<>();
+            for (int rowIndex = startInclusive; rowIndex < endExclusive; rowIndex++)
+            {
+                R result = rowMapper.apply(this.table.getRow(rowIndex));
+                if (result != null)
+                {
+                    partition.add(result);
+                }
+            }
+            return partition;
+        }, TableParallelProcessorImpl::concat);
+    }
+
+    private static <E> List<E> concat(List<E> left, List<E> right)
+    {
+        left.addAll(right);
+        return left;
+    }
+
+    private <P> P process(PartitionProcessor<P> partitionProcessor, BinaryOperator<P> merger)
+    {
+        int rowSize = this.table.getRowSize();
+        int partitionSize = this.partitionSize > 0 ? this.partitionSize
+                : Math.max(MINIMUM_PARTITION_SIZE, rowSize / (this.forkJoinPool.getParallelism() * PARTITIONS_PER_THREAD));
+        return this.forkJoinPool.invoke(new PartitionTask<>(0, rowSize, partitionSize, partitionProcessor, merger));
+    }
+
+    @FunctionalInterface
+    private static interface PartitionProcessor<P>
+    {
+        public P apply(int startInclusive, int endExclusive);
+    }
+
+    /**
+     * Splits the range of row indexes in halves until a range fits into a single partition. The result of the left half is always merged with the result
+     * of the right half, so the row order is kept.
+     */
+    private static class PartitionTask<P> extends RecursiveTask<P>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int                   startInclusive;
+        private final int                   endExclusive;
+        private final int                   partitionSize;
+        private final PartitionProcessor<P> partitionProcessor;
+        private final BinaryOperator<P>     merger;
+
+        public PartitionTask(int startInclusive, int endExclusive, int partitionSize, PartitionProcessor<P> partitionProcessor, BinaryOperator<P> merger)
+        {
+            super();
+            this.startInclusive = startInclusive;
+            this.endExclusive = endExclusive;
+            this.partitionSize = partitionSize;
+            this.partitionProcessor = partitionProcessor;
+            this.merger = merger;
+        }
+
+        @Override
+        protected P compute()
+        {
+            if (this.endExclusive - this.startInclusive <= this.partitionSize)
+            {
+                return this.partitionProcessor.apply(this.startInclusive, this.endExclusive);
+            }
+
+            int middle = (this.startInclusive + this.endExclusive) >>> 1;
+            PartitionTask<P> left = new PartitionTask<>(this.startInclusive, middle, this.partitionSize, this.partitionProcessor, this.merger);
+            PartitionTask<P> right = new PartitionTask<>(middle, this.endExclusive, this.partitionSize, this.partitionProcessor, this.merger);
+            left.fork();
+            P rightResult = right.compute();
+            return this.merger.apply(left.join(), rightResult);
+        }
+    }
+}
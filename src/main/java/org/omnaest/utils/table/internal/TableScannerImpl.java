@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.omnaest.utils.exception.RuntimeIOException;
+import org.omnaest.utils.table.components.TableDeserializer.CsvReaderOptions;
+import org.omnaest.utils.table.components.TableScanner;
+import org.omnaest.utils.table.domain.Row;
+
+public class TableScannerImpl implements TableScanner
+{
+    @Override
+    public Stream<Row> csv(File file)
+    {
+        return this.csv(file, null);
+    }
+
+    @Override
+    public Stream<Row> csv(File file, Consumer<CsvReaderOptions> options)
+    {
+        try
+        {
+            return this.csv(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8), options);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeIOException(e);
+        }
+    }
+
+    @Override
+    public Stream<Row> csv(InputStream inputStream)
+    {
+        return this.csv(inputStream, null);
+    }
+
+    @Override
+    public Stream<Row> csv(InputStream inputStream, Consumer<CsvReaderOptions> options)
+    {
+        return this.csv(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)), options);
+    }
+
+    private Stream<Row> csv(BufferedReader reader, Consumer<CsvReaderOptions> optionsConsumer)
+    {
+        CsvReaderOptionsImpl options = CsvReaderOptionsImpl.newInstanceAndAccept(optionsConsumer);
+        CsvRecordReader recordReader;
+        CsvProjection projection;
+        try
+        {
+            recordReader = CsvRecordReader.of(reader, options.getCsvFormat());
+            projection = CsvProjection.of(Arrays.asList(Optional.ofNullable(recordReader.next(null))
+                                                                .orElse(new String[0])),
+                                          options.getCsvFormat(), options.getColumns());
+        }
+        catch (IOException e)
+        {
+            IOUtils.closeQuietly(reader);
+            throw new RuntimeIOException(e);
+        }
+        catch (RuntimeException e)
+        {
+            IOUtils.closeQuietly(reader);
+            throw e;
+        }
+
+        ScanTableData data = new ScanTableData(projection.getColumnTitles()
+                                                         .size());
+        ArrayTable table = new ArrayTable(data);
+        table.addColumnTitles(projection.getColumnTitles());
+
+        Stream<String[]> records = CsvRecordStreams.of(recordReader, projection)
+                                                   .filter(CsvRecordStreams.newFilter(projection.getColumnTitles(), options.getFilter()));
+        return CsvRecordStreams.applyLimits(records, options)
+                               .map(record -> table.getRow(data.next(record)))
+                               .onClose(() ->
+                               {
+                                   try
+                                   {
+                                       recordReader.close();
+                                   }
+                                   catch (IOException e)
+                                   {
+                                       throw new RuntimeIOException(e);
+                                   }
+                               });
+    }
+}
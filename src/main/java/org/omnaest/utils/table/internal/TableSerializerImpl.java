@@ -15,25 +15,33 @@
  ******************************************************************************/
 package org.omnaest.utils.table.internal;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.lang3.StringUtils;
-import org.omnaest.utils.FileUtils;
-import org.omnaest.utils.csv.CSVUtils;
-import org.omnaest.utils.csv.CSVUtils.CSVSerializationConsumer;
+import org.omnaest.utils.exception.RuntimeIOException;
 import org.omnaest.utils.table.Table;
 import org.omnaest.utils.table.components.TableSerializer;
-import org.omnaest.utils.table.domain.Cell;
 import org.omnaest.utils.table.domain.Column;
-import org.omnaest.utils.table.domain.Row;
+import org.omnaest.utils.table.domain.RowCursor;
 
 public class TableSerializerImpl implements TableSerializer
 {
@@ -49,24 +57,35 @@ public class TableSerializerImpl implements TableSerializer
     @Override
     public SerializationResultWriter asCsv(Consumer<CsvWriterOptions> options)
     {
-        CSVSerializationConsumer serializer = CSVUtils.serializer()
-                                                      .withCSVFormat(DEFAULT_CSV_FORMAT);
-        if (options != null)
+        CSVFormat csvFormat = CsvWriterOptionsImpl.newInstanceAndAccept(options)
+                                                  .getCsvFormat();
+        return this.createSerializationResultWriter(writer -> this.writeCsv(writer, csvFormat));
+    }
+
+    /**
+     * Prints the rows one by one into the given {@link Writer}, moving a single {@link RowCursor} and reusing a single values array, so no per row objects
+     * are created. The {@link Writer} is flushed, but not closed.
+     * 
+     * @param writer
+     * @param csvFormat
+     * @throws IOException
+     */
+    private void writeCsv(Writer writer, CSVFormat csvFormat) throws IOException
+    {
+        List<String> columnTitles = this.table.getColumnTitles();
+        CSVPrinter printer = csvFormat.withHeader(columnTitles.toArray(new String[columnTitles.size()]))
+                                      .print(writer);
+        Object[] values = new Object[columnTitles.size()];
+        RowCursor cursor = this.table.cursor();
+        while (cursor.next())
         {
-            options.accept(new CsvWriterOptions() {
-                @Override
-                public CsvWriterOptions withDelimiter(char delimiter)
-                {
-                    serializer.withDelimiter(delimiter);
-                    return this;
-                }
-            });
+            for (int columnIndex = 0; columnIndex < values.length; columnIndex++)
+            {
+                values[columnIndex] = cursor.getValue(columnIndex);
+            }
+            printer.printRecord(values);
         }
-
-        return this.createSerializationResultWriter(() -> serializer.withHeaders(TableSerializerImpl.this.table.getColumnTitles())
-                                                                    .intoString(TableSerializerImpl.this.table.getRows()
-                                                                                                              .stream()
-                                                                                                              .map(Row::asMap)));
+        printer.flush();
     }
 
     @Override
@@ -84,20 +103,90 @@ public class TableSerializerImpl implements TableSerializer
         return this.asCsv(options -> options.withDelimiter('\t'));
     }
 
-    private SerializationResultWriter createSerializationResultWriter(Supplier<String> serializationContentCreator)
+    private static interface SerializationContentWriter
+    {
+        public void writeInto(Writer writer) throws IOException;
+    }
+
+    private SerializationResultWriter createSerializationResultWriter(SerializationContentWriter serializationContentWriter)
     {
         return new SerializationResultWriter() {
             @Override
             public String get()
             {
-                return serializationContentCreator.get();
+                StringWriter writer = new StringWriter();
+                try
+                {
+                    serializationContentWriter.writeInto(writer);
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeIOException(e);
+                }
+                return writer.toString();
             }
 
             @Override
             public SerializationResultWriter writeInto(File file)
             {
-                FileUtils.toConsumer(file)
-                         .accept(this.get());
+                return this.writeInto(file.toPath());
+            }
+
+            @Override
+            public SerializationResultWriter writeInto(Path path)
+            {
+                try
+                {
+                    Path directory = path.toAbsolutePath()
+                                         .getParent();
+                    if (directory != null)
+                    {
+                        Files.createDirectories(directory);
+                    }
+                    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8))
+                    {
+                        serializationContentWriter.writeInto(writer);
+                    }
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeIOException(e);
+                }
+                return this;
+            }
+
+            @Override
+            public SerializationResultWriter writeInto(Writer writer)
+            {
+                try
+                {
+                    BufferedWriter bufferedWriter = new BufferedWriter(writer);
+                    serializationContentWriter.writeInto(bufferedWriter);
+                    bufferedWriter.flush();
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeIOException(e);
+                }
+                return this;
+            }
+
+            @Override
+            public SerializationResultWriter writeInto(OutputStream outputStream)
+            {
+                return this.writeInto(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    @Override
+    public BinarySerializationResultWriter asIndexedBinary()
+    {
+        return new BinarySerializationResultWriter() {
+            @Override
+            public BinarySerializationResultWriter writeInto(File file)
+            {
+                MappedTableData.write(TableSerializerImpl.this.table, file);
                 return this;
             }
         };
@@ -107,37 +196,35 @@ public class TableSerializerImpl implements TableSerializer
     public SerializationResultWriter asFixColumnSizeFormatted()
     {
         List<Column> effectiveColumns = this.table.getEffectiveColumns();
-        Map<String, Integer> columnTitleToMaxLength = effectiveColumns.stream()
-                                                                      .collect(Collectors.toMap(Column::getTitle,
-                                                                                                column -> Stream.concat(Stream.of(column.getTitle()),
-                                                                                                                        column.getValues()
-                                                                                                                              .stream())
-                                                                                                                .map(StringUtils::defaultString)
-                                                                                                                .mapToInt(String::length)
-                                                                                                                .max()
-                                                                                                                .orElse(0),
-                                                                                                (v1, v2) -> v1));
-        BiFunction<String, String, String> valuePaddingNormalizer = (value, columnTitle) -> StringUtils.rightPad(StringUtils.defaultString(value),
-                                                                                                                 columnTitleToMaxLength.getOrDefault(columnTitle, 0));
+        List<String[]> columnValues = effectiveColumns.stream()
+                                                      .map(Column::valuesArray)
+                                                      .collect(Collectors.toList());
+        int[] columnWidths = IntStream.range(0, effectiveColumns.size())
+                                      .map(columnIndex -> Stream.concat(Stream.of(effectiveColumns.get(columnIndex)
+                                                                                                  .getTitle()),
+                                                                        Arrays.stream(columnValues.get(columnIndex)))
+                                                                .map(StringUtils::defaultString)
+                                                                .mapToInt(String::length)
+                                                                .max()
+                                                                .orElse(0))
+                                      .toArray();
+        BiFunction<String, Integer, String> valuePaddingNormalizer = (value, columnIndex) -> StringUtils.rightPad(StringUtils.defaultString(value),
+                                                                                                                  columnWidths[columnIndex]);
 
         Supplier<String> serializer = () -> org.omnaest.utils.StringUtils.builder()
-                                                                         .addLine(this.table.getEffectiveColumnTitles()
-                                                                                            .stream()
-                                                                                            .map(columnTitle -> valuePaddingNormalizer.apply(columnTitle,
-                                                                                                                                             columnTitle))
-                                                                                            .collect(Collectors.joining(" ")))
-                                                                         .addLines(this.table.stream()
-                                                                                             .map(row -> effectiveColumns.stream()
-                                                                                                                         .map(Column::getTitle)
-                                                                                                                         .map(title -> valuePaddingNormalizer.apply(row.getOptionalCell(title)
-                                                                                                                                                                       .map(Cell::getValue)
-
-                                                                                                                                                                       .orElse(""),
-                                                                                                                                                                    title))
-                                                                                                                         .collect(Collectors.joining(" ")))
-                                                                                             .toList())
+                                                                         .addLine(IntStream.range(0, effectiveColumns.size())
+                                                                                           .mapToObj(columnIndex -> valuePaddingNormalizer.apply(effectiveColumns.get(columnIndex)
+                                                                                                                                                                 .getTitle(),
+                                                                                                                                                 columnIndex))
+                                                                                           .collect(Collectors.joining(" ")))
+                                                                         .addLines(IntStream.range(0, this.table.getRowSize())
+                                                                                            .mapToObj(rowIndex -> IntStream.range(0, effectiveColumns.size())
+                                                                                                                           .mapToObj(columnIndex -> valuePaddingNormalizer.apply(columnValues.get(columnIndex)[rowIndex],
+                                                                                                                                                                                 columnIndex))
+                                                                                                                           .collect(Collectors.joining(" ")))
+                                                                                            .toList())
                                                                          .build();
-        return this.createSerializationResultWriter(serializer);
+        return this.createSerializationResultWriter(writer -> writer.write(serializer.get()));
     }
 
 }
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.omnaest.utils.table.domain.ColumnType;
+
+/**
+ * Storage of the cell values of an {@link ArrayTable}.
+ * 
+ * @see TableData
+ * @see ColumnarTableData
+ */
+public interface TableStorage
+{
+    /**
+     * Returns the value of the given cell
+     * 
+     * @throws IndexOutOfBoundsException
+     *             if the row or column index is outside of the current row and column size
+     * @param rowIndex
+     * @param columnIndex
+     * @return
+     */
+    public String get(int rowIndex, int columnIndex);
+
+    public void set(int rowIndex, int columnIndex, String value);
+
+    public int getRowSize();
+
+    public int getColumnSize();
+
+    public void setRowSize(int rowSize);
+
+    /**
+     * Appends a new empty row and returns its row index
+     * 
+     * @return
+     */
+    public default int appendRow()
+    {
+        int rowIndex = this.getRowSize();
+        this.setRowSize(rowIndex + 1);
+        return rowIndex;
+    }
+
+    /**
+     * Returns a copy of all values of the given row
+     * 
+     * @throws IndexOutOfBoundsException
+     * @param rowIndex
+     * @return
+     */
+    public String[] getRow(int rowIndex);
+
+    /**
+     * Returns a copy of all values of the given column. A column index beyond the current column size results in only null values.
+     * 
+     * @throws IndexOutOfBoundsException
+     *             for a negative column index
+     * @param columnIndex
+     * @return
+     */
+    public String[] getColumn(int columnIndex);
+
+    /**
+     * Returns true, if any row of the given column holds the given value
+     * 
+     * @throws IndexOutOfBoundsException
+     *             if the column index is outside of the current column size
+     * @param columnIndex
+     * @param value
+     * @return
+     */
+    public default boolean containsValue(int columnIndex, String value)
+    {
+        for (int rowIndex = 0; rowIndex < this.getRowSize(); rowIndex++)
+        {
+            if (Objects.equals(this.get(rowIndex, columnIndex), value))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the {@link DictionaryEncodedColumn} of the given column index, if the storage holds that column dictionary encoded
+     * 
+     * @param columnIndex
+     * @return
+     */
+    public default Optional<DictionaryEncodedColumn> getDictionaryEncodedColumn(int columnIndex)
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Declares the {@link ColumnType} of the given column. Storages which do not support typed columns keep the values as {@link String}s.
+     * 
+     * @param columnIndex
+     * @param columnType
+     */
+    public default void setColumnType(int columnIndex, ColumnType columnType)
+    {
+        // keeps all values as strings by default
+    }
+
+    /**
+     * Reserves capacity for the given number of rows and columns, so that filling the storage up to that size does not resize it repeatedly
+     * 
+     * @param expectedRows
+     * @param expectedColumns
+     */
+    public default void ensureCapacity(int expectedRows, int expectedColumns)
+    {
+        // no capacity to reserve by default
+    }
+
+    /**
+     * Releases the capacity reserved beyond the current row and column size
+     */
+    public default void trimToSize()
+    {
+        // no capacity to release by default
+    }
+
+    /**
+     * Returns an immutable {@link TableStorage} with the current values, which keeps the layout of this storage. Implementations share their data with the
+     * returned snapshot and copy only the parts which are written afterwards (copy on write). The default implementation copies all values into a
+     * {@link FrozenTableData}.
+     * 
+     * @return
+     */
+    public default TableStorage snapshot()
+    {
+        return FrozenTableData.of(this);
+    }
+
+    /**
+     * Reduces the memory footprint of the currently held values. Storages which are not able to compress their values do nothing.
+     */
+    public default void compact()
+    {
+        // nothing to compact by default
+    }
+
+    /**
+     * Adds the estimated heap memory usage of this storage to the given {@link MemoryUsage}. The default implementation counts only the values.
+     * 
+     * @param memoryUsage
+     */
+    public default void accumulateMemoryUsage(MemoryUsage memoryUsage)
+    {
+        for (int columnIndex = 0; columnIndex < this.getColumnSize(); columnIndex++)
+        {
+            for (String value : this.getColumn(columnIndex))
+            {
+                memoryUsage.addColumnValue(columnIndex, value);
+            }
+        }
+        long numberOfCells = (long) this.getRowSize() * this.getColumnSize();
+        memoryUsage.addCapacity(numberOfCells, numberOfCells);
+    }
+
+    public default boolean isNull(int rowIndex, int columnIndex)
+    {
+        return this.get(rowIndex, columnIndex) == null;
+    }
+
+    public default int getInt(int rowIndex, int columnIndex)
+    {
+        return NumberUtils.toInt(this.get(rowIndex, columnIndex));
+    }
+
+    public default long getLong(int rowIndex, int columnIndex)
+    {
+        return NumberUtils.toLong(this.get(rowIndex, columnIndex));
+    }
+
+    public default double getDouble(int rowIndex, int columnIndex)
+    {
+        return NumberUtils.toDouble(this.get(rowIndex, columnIndex));
+    }
+
+    public default boolean getBoolean(int rowIndex, int columnIndex)
+    {
+        return BooleanUtils.toBoolean(this.get(rowIndex, columnIndex));
+    }
+
+    /**
+     * Returns true, if both {@link TableStorage}s have the same number of rows and columns and hold equal values, regardless of their implementation
+     * 
+     * @param storage
+     * @param other
+     * @return
+     */
+    public static boolean contentEquals(TableStorage storage, TableStorage other)
+    {
+        if (storage.getRowSize() != other.getRowSize() || storage.getColumnSize() != other.getColumnSize())
+        {
+            return false;
+        }
+        for (int rowIndex = 0; rowIndex < storage.getRowSize(); rowIndex++)
+        {
+            if (!Arrays.equals(storage.getRow(rowIndex), other.getRow(rowIndex)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code of the values of the given {@link TableStorage}, which is consistent with {@link #contentEquals(TableStorage, TableStorage)}
+     * 
+     * @param storage
+     * @return
+     */
+    public static int contentHashCode(TableStorage storage)
+    {
+        final int prime = 31;
+        int result = 1;
+        for (int rowIndex = 0; rowIndex < storage.getRowSize(); rowIndex++)
+        {
+            result = prime * result + Arrays.hashCode(storage.getRow(rowIndex));
+        }
+        result = prime * result + storage.getColumnSize();
+        result = prime * result + storage.getRowSize();
+        return result;
+    }
+}
@@ -15,11 +15,16 @@
  ******************************************************************************/
 package org.omnaest.utils.table.internal;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -76,7 +81,44 @@ public class TableTranslatorImpl implements TableTranslator
     @Override
     public Map<String, List<String>> groupedMap()
     {
-        return this.group(Row::getFirstValue, Row::getSecondValue);
+        return this.getDictionaryEncodedColumn(0)
+                   .map(this::groupedMap)
+                   .orElseGet(() -> this.group(Row::getFirstValue, Row::getSecondValue));
+    }
+
+    private Map<String, List<String>> groupedMap(DictionaryEncodedColumn keyColumn)
+    {
+        List<List<String>> codeToValues = new ArrayList<>(Collections.nCopies(keyColumn.getDictionarySize(), null));
+        for (int rowIndex = 0; rowIndex < this.table.getRowSize(); rowIndex++)
+        {
+            int code = keyColumn.getCode(rowIndex);
+            if (code != DictionaryEncodedColumn.NULL_CODE)
+            {
+                List<String> values = codeToValues.get(code);
+                if (values == null)
+                {
+                    values = new ArrayList<>();
+                    codeToValues.set(code, values);
+                }
+                values.add(this.table.getRow(rowIndex)
+                                     .getSecondValue());
+            }
+        }
+
+        Map<String, List<String>> result = new HashMap<>();
+        for (int code = 0; code < codeToValues.size(); code++)
+        {
+            if (codeToValues.get(code) != null)
+            {
+                result.put(keyColumn.getValue(code), codeToValues.get(code));
+            }
+        }
+        return result;
+    }
+
+    private Optional<DictionaryEncodedColumn> getDictionaryEncodedColumn(int columnIndex)
+    {
+        return this.table instanceof ArrayTable ? ((ArrayTable) this.table).getDictionaryEncodedColumn(columnIndex) : Optional.empty();
     }
 
     @Override
@@ -108,8 +150,65 @@ public class TableTranslatorImpl implements TableTranslator
     @Override
     public TableColumnIndex indexOfColumn(String columnTitle)
     {
-        Map<String, List<Row>> map = this.group(row -> row.getValue(columnTitle), row -> row);
+        return this.table.getColumn(columnTitle)
+                         .map(Column::getColumnIndex)
+                         .flatMap(this::getDictionaryEncodedColumn)
+                         .map(this::createColumnIndex)
+                         .orElseGet(() -> this.createColumnIndex(this.group(row -> row.getValue(columnTitle), row -> row)));
+    }
+
+    private TableColumnIndex createColumnIndex(DictionaryEncodedColumn column)
+    {
+        int rowSize = this.table.getRowSize();
+
+        int[] codeOffsets = new int[column.getDictionarySize() + 1];
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++)
+        {
+            codeOffsets[column.getCode(rowIndex) + 1]++;
+        }
+        for (int code = 1; code < codeOffsets.length; code++)
+        {
+            codeOffsets[code] += codeOffsets[code - 1];
+        }
+
+        int[] rowIndexes = new int[rowSize];
+        int[] codeFillPositions = Arrays.copyOf(codeOffsets, codeOffsets.length - 1);
+        for (int rowIndex = 0; rowIndex < rowSize; rowIndex++)
+        {
+            rowIndexes[codeFillPositions[column.getCode(rowIndex)]++] = rowIndex;
+        }
 
+        return new TableColumnIndex() {
+            @Override
+            public Optional<Row> getRowByValue(String value)
+            {
+                return this.getRowsByValue(value)
+                           .findFirst();
+            }
+
+            @Override
+            public Stream<Row> getRowsByValue(String value)
+            {
+                int code = column.getCode(value);
+                if (code <= DictionaryEncodedColumn.NULL_CODE || code >= codeOffsets.length - 1)
+                {
+                    return Stream.empty();
+                }
+                return IntStream.range(codeOffsets[code], codeOffsets[code + 1])
+                                .mapToObj(index -> TableTranslatorImpl.this.table.getRow(rowIndexes[index]));
+            }
+
+            @Override
+            public boolean containsValue(String value)
+            {
+                return this.getRowByValue(value)
+                           .isPresent();
+            }
+        };
+    }
+
+    private TableColumnIndex createColumnIndex(Map<String, List<Row>> map)
+    {
         return new TableColumnIndex() {
             @Override
             public Optional<Row> getRowByValue(String value)
@@ -140,14 +239,82 @@ public class TableTranslatorImpl implements TableTranslator
     {
         Table result = Table.newInstance()
                             .addColumnTitles(this.table.getColumnTitles());
+
+        int numberOfColumns = this.table.stream()
+                                        .findFirst()
+                                        .map(Row::size)
+                                        .orElse(0);
+        List<DictionaryEncodedColumn> encodedColumns = new ArrayList<>();
+        List<Integer> plainColumnIndexes = new ArrayList<>();
+        for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++)
+        {
+            int index = columnIndex;
+            this.getDictionaryEncodedColumn(columnIndex)
+                .ifPresentOrElse(encodedColumns::add, () -> plainColumnIndexes.add(index));
+        }
+
+        Set<RowKey> rowKeys = new HashSet<>();
         this.table.stream()
+                  .filter(row ->
+                  {
+                      int[] codes = new int[encodedColumns.size()];
+                      for (int ii = 0; ii < codes.length; ii++)
+                      {
+                          codes[ii] = encodedColumns.get(ii)
+                                                    .getCode(row.getRowIndex());
+                      }
+                      String[] values = new String[plainColumnIndexes.size()];
+                      for (int ii = 0; ii < values.length; ii++)
+                      {
+                          values[ii] = row.getValue(plainColumnIndexes.get(ii));
+                      }
+                      return rowKeys.add(new RowKey(codes, values));
+                  })
                   .map(Row::asList)
-                  .distinct()
                   .forEach(result::addRow);
 
         return result;
     }
 
+    /**
+     * Key of a {@link Row} based on the codes of the {@link DictionaryEncodedColumn}s and the values of all other columns
+     */
+    private static class RowKey
+    {
+        private final int[]    codes;
+        private final String[] values;
+        private final int      hashCode;
+
+        public RowKey(int[] codes, String[] values)
+        {
+            super();
+            this.codes = codes;
+            this.values = values;
+            this.hashCode = 31 * Arrays.hashCode(codes) + Arrays.hashCode(values);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof RowKey))
+            {
+                return false;
+            }
+            RowKey other = (RowKey) obj;
+            return Arrays.equals(this.codes, other.codes) && Arrays.equals(this.values, other.values);
+        }
+    }
+
     @Override
     public Table filteredRows(Predicate<Row> rowInclusionFilter)
     {
@@ -185,14 +352,23 @@ public class TableTranslatorImpl implements TableTranslator
     public Table flipped()
     {
         List<Column> columns = this.table.getEffectiveColumns();
-        return Table.newInstance()
+        return Table.newInstance(columns.size(), this.table.getRowSize() + 1)
                     .addColumnTitles(columns.stream()
                                             .findFirst()
-                                            .map(column -> ListUtils.addToNew(column.getValues(), 0, column.getTitle()))
+                                            .map(TableTranslatorImpl::determineTitleAndValues)
                                             .orElse(Collections.emptyList()))
                     .processAndAddRow(columns.stream()
                                              .skip(1),
-                                      (column, row) -> row.setValues(ListUtils.addToNew(column.getValues(), 0, column.getTitle())));
+                                      (column, row) -> row.setValues(determineTitleAndValues(column)));
+    }
+
+    private static List<String> determineTitleAndValues(Column column)
+    {
+        String[] values = column.valuesArray();
+        List<String> result = new ArrayList<>(values.length + 1);
+        result.add(column.getTitle());
+        Collections.addAll(result, values);
+        return result;
     }
 
     @Override
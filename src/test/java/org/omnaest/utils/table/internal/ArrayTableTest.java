@@ -16,21 +16,41 @@
 package org.omnaest.utils.table.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.apache.commons.csv.CSVFormat;
 import org.junit.Test;
 import org.omnaest.utils.ListUtils;
 import org.omnaest.utils.MapUtils;
 import org.omnaest.utils.StringUtils;
+import org.omnaest.utils.table.ImmutableTable;
 import org.omnaest.utils.table.Table;
+import org.omnaest.utils.table.components.TableParallelProcessor;
 import org.omnaest.utils.table.components.TableTranslator.SortOrder;
 import org.omnaest.utils.table.domain.Cell;
 import org.omnaest.utils.table.domain.Column;
+import org.omnaest.utils.table.domain.ColumnType;
+import org.omnaest.utils.table.domain.MemoryStats;
+import org.omnaest.utils.table.domain.MemoryStats.ColumnMemoryStats;
 import org.omnaest.utils.table.domain.Row;
+import org.omnaest.utils.table.domain.RowCursor;
 import org.omnaest.utils.table.domain.ValueAccessor;
 
 public class ArrayTableTest
@@ -220,6 +240,188 @@ public class ArrayTableTest
         assertEquals(table, tableDeserialized);
     }
 
+    @Test
+    public void testSerializeAsFixColumnSizeFormatted() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("a", "a")
+                           .addRow("1", "long", "untitled")
+                           .addRow("22", "2");
+        assertEquals(Arrays.asList("a  a            ", "1  long untitled", "22 2            "), table.serialize()
+                                                                                                  .asFixColumnSizeFormatted()
+                                                                                                  .get()
+                                                                                                  .lines()
+                                                                                                  .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testDeserializeFromInputStream() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("column1", "column2")
+                           .addRow("0.0", "line1\nline2")
+                           .addRow("1.0", "1.1");
+        String csv = table.serialize()
+                          .asCsv()
+                          .get();
+        assertEquals(table, Table.newInstance()
+                                 .deserialize()
+                                 .fromCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+
+        Table fixColumnSizeTable = Table.newInstance()
+                                        .deserialize()
+                                        .asFixColumnSizeFormatted()
+                                        .from(new ByteArrayInputStream("a    b\n\n1    2\n10   20\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(Arrays.asList("a", "b"), fixColumnSizeTable.getColumnTitles());
+        assertEquals(Arrays.asList("10", "20"), fixColumnSizeTable.getRow(1)
+                                                                  .asList());
+    }
+
+    @Test
+    public void testDeserializeWithColumns() throws Exception
+    {
+        String csv = "a;b;c;d\n1;\"2;\"\"x\"\"\";3;4\r\n5;6;\"7\n8\"\n9\n";
+        Table table = Table.newInstance()
+                           .deserialize()
+                           .asCsv(options -> options.withColumns("c", "a"))
+                           .from(csv);
+        assertEquals(Arrays.asList("c", "a"), table.getColumnTitles());
+        assertEquals(3, table.getRowSize());
+        assertEquals(Arrays.asList("3", "1"), table.getRow(0)
+                                                   .asList());
+        assertEquals(Arrays.asList("7\n8", "5"), table.getRow(1)
+                                                      .asList());
+        assertEquals(Arrays.asList(null, "9"), table.getRow(2)
+                                                    .asList());
+
+        assertEquals(Arrays.asList("2;\"x\"", "6", null), Table.newInstance()
+                                                              .deserialize()
+                                                              .asCsv(options -> options.withColumns("b"))
+                                                              .from(csv)
+                                                              .getColumn("b")
+                                                              .get()
+                                                              .getValues());
+    }
+
+    @Test
+    public void testDeserializeValidatesHeader() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .deserialize()
+                           .asCsv()
+                           .from("a;;b;a\n1;2;3;4\n");
+        assertEquals(Arrays.asList("a", "", "b"), table.getColumnTitles());
+        assertEquals(Arrays.asList("4", "2", "3"), table.getRow(0)
+                                                        .asList());
+
+        CSVFormat csvFormat = TableSerializerImpl.DEFAULT_CSV_FORMAT.withFirstRecordAsHeader();
+        for (CSVFormat invalidFormat : new CSVFormat[] { csvFormat.withAllowDuplicateHeaderNames(false), csvFormat.withAllowMissingColumnNames(false) })
+        {
+            String csv = invalidFormat.getAllowMissingColumnNames() ? "a;b;a\n1;2;3\n" : "a;;b\n1;2;3\n";
+            try
+            {
+                invalidFormat.parse(new StringReader(csv));
+                fail();
+            }
+            catch (IllegalArgumentException e)
+            {
+                // expected
+            }
+            try
+            {
+                CsvProjection.of(Arrays.asList(csv.substring(0, csv.indexOf('\n'))
+                                                  .split(";", -1)),
+                                 invalidFormat, null);
+                fail();
+            }
+            catch (IllegalArgumentException e)
+            {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testDeserializeWithFilterAndLimits() throws Exception
+    {
+        Table source = Table.newInstance()
+                            .addColumnTitles("id", "text");
+        for (int ii = 0; ii < 100; ii++)
+        {
+            source.addRow(String.valueOf(ii), "text" + ii);
+        }
+        String csv = source.serialize()
+                           .asCsv()
+                           .get();
+
+        Table table = Table.newInstance()
+                           .deserialize()
+                           .asCsv(options -> options.withColumns("id")
+                                                    .withFilter(row -> row.getInt("id") % 2 == 0)
+                                                    .withSkip(5)
+                                                    .withLimit(20))
+                           .from(csv);
+        assertEquals(Arrays.asList("id"), table.getColumnTitles());
+        assertEquals(IntStream.range(5, 25)
+                              .mapToObj(ii -> String.valueOf(ii * 2))
+                              .collect(Collectors.toList()),
+                     table.getColumn("id")
+                          .get()
+                          .getValues());
+
+        Table sample = Table.newInstance()
+                            .deserialize()
+                            .asCsv(options -> options.withFilter(row -> row.getInt("id") % 2 == 0)
+                                                     .withSampling(10, 42))
+                            .from(csv);
+        assertEquals(10, sample.getRowSize());
+        List<Integer> ids = sample.getColumn("id")
+                                  .get()
+                                  .getValues()
+                                  .stream()
+                                  .map(Integer::valueOf)
+                                  .collect(Collectors.toList());
+        assertEquals(ids.stream()
+                        .sorted()
+                        .distinct()
+                        .collect(Collectors.toList()),
+                     ids);
+        assertTrue(ids.stream()
+                      .allMatch(id -> id % 2 == 0));
+        assertEquals(sample, Table.newInstance()
+                                  .deserialize()
+                                  .asCsv(options -> options.withFilter(row -> row.getInt("id") % 2 == 0)
+                                                           .withSampling(10, 42))
+                                  .from(csv));
+    }
+
+    @Test
+    public void testSerializeIntoWriterAndOutputStream() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("a", "b")
+                           .addRow("1", "quoted \"2\"\nwith;line break")
+                           .addRow("ä", "b");
+        String csv = table.serialize()
+                          .asCsv()
+                          .get();
+
+        StringWriter writer = new StringWriter();
+        table.serialize()
+             .asCsv()
+             .writeInto(writer);
+        assertEquals(csv, writer.toString());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        table.serialize()
+             .asCsv()
+             .writeInto(outputStream);
+        assertEquals(csv, new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(table, Table.newInstance()
+                                 .deserialize()
+                                 .fromCsv(new ByteArrayInputStream(outputStream.toByteArray())));
+    }
+
     @Test
     public void testGetEffectiveColumns() throws Exception
     {
@@ -547,4 +749,351 @@ public class ArrayTableTest
                           .groupedAndAggregatedAndProjectedRows(Row::getFirstValue, (name, rows) -> ListUtils.first(rows)));
     }
 
+    @Test
+    public void testPrimitiveValues()
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("intColumn", "doubleColumn", "booleanColumn")
+                           .addColumnTitle("longColumn", ColumnType.LONG)
+                           .addRow("1", "1.3", "true", "10000000000")
+                           .addRow("", "", "");
+        assertEquals(1, table.getRow(0)
+                             .getInt("intColumn"));
+        assertEquals(1.3, table.getRow(0)
+                               .getDouble("doubleColumn"),
+                     0.01);
+        assertEquals(true, table.getRow(0)
+                                .getBoolean("booleanColumn"));
+        assertEquals(10000000000L, table.getRow(0)
+                                        .getLong("longColumn"));
+        assertEquals(0, table.getRow(1)
+                             .getInt(0));
+        assertEquals(0, table.getRow(1)
+                             .getInt(10));
+        assertEquals(false, table.getRow(1)
+                                 .getBoolean("booleanColumn"));
+    }
+
+    @Test
+    public void testMemoryStats() throws Exception
+    {
+        for (Table table : Arrays.asList(Table.newInstance(), Table.newColumnarInstance(), Table.newSparseInstance()))
+        {
+            table.addColumnTitles("column1", "column2");
+            for (int ii = 0; ii < 1000; ii++)
+            {
+                table.addRow("a longer value " + ii, "group" + (ii / 100));
+            }
+
+            MemoryStats memoryStats = table.memoryStats();
+            assertTrue(memoryStats.getRetainedBytes() > 1000 * MemoryUsage.sizeOfString("value000"));
+            assertTrue(memoryStats.getUsedCapacity() >= 2000);
+            assertTrue(memoryStats.getAllocatedCapacity() >= memoryStats.getUsedCapacity());
+            assertEquals(Arrays.asList("column1", "column2"), memoryStats.getColumns()
+                                                                         .stream()
+                                                                         .map(ColumnMemoryStats::getColumnTitle)
+                                                                         .collect(Collectors.toList()));
+            assertTrue(memoryStats.getColumns()
+                                  .get(0)
+                                  .getRetainedBytes() > memoryStats.getColumns()
+                                                                   .get(1)
+                                                                   .getRetainedBytes());
+
+            assertTrue(table.compact()
+                            .memoryStats()
+                            .getRetainedBytes() < memoryStats.getRetainedBytes());
+        }
+    }
+
+    @Test
+    public void testCursor() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("name", "age")
+                           .addRow("Gunther", "40")
+                           .addRow("Paul", null)
+                           .addRow("Maria", "30", "extra");
+
+        RowCursor cursor = table.cursor();
+        assertTrue(cursor.next());
+        assertEquals("Gunther", cursor.getValue("name"));
+        assertEquals(40, cursor.getInt("age"));
+        assertTrue(cursor.next());
+        assertTrue(cursor.isNull(1));
+        assertEquals(0, cursor.getInt(1));
+        assertEquals(null, cursor.getValue(5));
+        assertTrue(cursor.next());
+        assertEquals("extra", cursor.getValue(2));
+        assertEquals(Arrays.asList("Maria", "30", "extra"), cursor.asRow()
+                                                                 .asList());
+        assertFalse(cursor.next());
+
+        StringBuilder names = new StringBuilder();
+        AtomicLong ageSum = new AtomicLong();
+        table.forEachRow(row ->
+        {
+            names.append(row.getValue(0));
+            ageSum.addAndGet(row.getLong("age"));
+        });
+        assertEquals("GuntherPaulMaria", names.toString());
+        assertEquals(70, ageSum.get());
+    }
+
+    @Test
+    public void testAddManyTitles() throws Exception
+    {
+        List<String> titles = IntStream.range(0, 100000)
+                                       .mapToObj(index -> "title" + index)
+                                       .collect(Collectors.toList());
+        Table table = Table.newInstance()
+                           .addColumnTitle("first")
+                           .addColumnTitles(titles)
+                           .addRowTitles(titles)
+                           .addColumnTitle("last");
+
+        assertEquals(100002, table.getColumnTitles()
+                                  .size());
+        table.getRow(99999)
+             .getCell("title99999")
+             .setValue("value");
+        assertEquals("value", table.getValue("title99999", "title99999"));
+        assertEquals(100001, table.getColumn("last")
+                                  .get()
+                                  .getColumnIndex());
+    }
+
+    @Test
+    public void testGetColumnByTitle() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("a", "b", "c")
+                           .addRow("1", "2", "3");
+
+        assertSame(table.getColumn("b")
+                        .get(),
+                   table.getColumn("b")
+                        .get());
+        assertEquals(Arrays.asList("3"), table.getColumn("c")
+                                              .get()
+                                              .getValues());
+        assertFalse(table.getColumn("d")
+                         .isPresent());
+
+        table.addColumnTitles("b", "b")
+             .addRow("4", "5", "6", "7", "8");
+        assertEquals(1, table.getColumn("b")
+                             .get()
+                             .getColumnIndex());
+        assertEquals(1, table.snapshot()
+                             .getColumn("b")
+                             .get()
+                             .getColumnIndex());
+    }
+
+    @Test
+    public void testColumnValues() throws Exception
+    {
+        for (Table table : Arrays.asList(Table.newInstance(), Table.newColumnarInstance(), Table.newSparseInstance()))
+        {
+            table.addColumnTitles("a", "b")
+                 .addRow("1", "x")
+                 .addRow("2", null)
+                 .addRow("3", "x")
+                 .addRow("2");
+            table.getRow(0)
+                 .getCell(1)
+                 .setValue("y");
+
+            Column column = table.getColumn("b")
+                                 .get();
+            assertEquals(Arrays.asList("y", null, "x", null), Arrays.asList(column.valuesArray()));
+            assertEquals(Arrays.asList("y", null, "x", null), column.stream()
+                                                                    .collect(Collectors.toList()));
+            assertTrue(column.containsValue("x"));
+            assertTrue(column.containsValue(null));
+            assertFalse(column.containsValue("z"));
+            assertFalse(table.getColumn("a")
+                             .get()
+                             .containsValue(null));
+
+            table.compact();
+            assertTrue(table.getColumn("a")
+                            .get()
+                            .containsValue("3"));
+            assertFalse(column.containsValue("z"));
+        }
+    }
+
+    @Test
+    public void testAddValues() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addRow("a", null, "c");
+
+        Row row = table.getRow(0);
+        row.addValue("b")
+           .addValue("d");
+        assertEquals(Arrays.asList("a", "b", "c", "d"), row.asList());
+
+        row.getCell(1)
+           .setValue(null);
+        row.addValues("x", "e");
+        assertEquals(Arrays.asList("a", "x", "c", "d", "e"), row.asList());
+
+        table.getRow(0)
+             .getCell(2)
+             .setValue(null);
+        row.addValue("y");
+        assertEquals(Arrays.asList("a", "x", "y", "d", "e"), row.asList());
+
+        String[] values = IntStream.range(0, 10000)
+                                   .mapToObj(String::valueOf)
+                                   .toArray(String[]::new);
+        assertEquals(Arrays.asList(values), table.newRow()
+                                                 .addValues(values)
+                                                 .asList());
+    }
+
+    @Test
+    public void testIteratorAndSpliterator() throws Exception
+    {
+        Table table = Table.newInstance();
+        for (int ii = 0; ii < 1000; ii++)
+        {
+            table.addRow(String.valueOf(ii));
+        }
+
+        int expectedRowIndex = 0;
+        for (Row row : table)
+        {
+            assertEquals(expectedRowIndex++, row.getRowIndex());
+        }
+        assertEquals(1000, expectedRowIndex);
+
+        Spliterator<Row> spliterator = table.spliterator();
+        Spliterator<Row> prefix = spliterator.trySplit();
+        assertEquals(500, prefix.estimateSize());
+        assertEquals(500, spliterator.estimateSize());
+
+        assertEquals(IntStream.range(0, 1000)
+                              .sum(),
+                     table.stream()
+                          .parallel()
+                          .mapToInt(row -> row.getInt(0))
+                          .sum());
+        assertEquals(Arrays.asList("0", "1", "2"), table.stream()
+                                                        .parallel()
+                                                        .limit(3)
+                                                        .map(Row::getFirstValue)
+                                                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testParallel() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("id", "group");
+        for (int ii = 0; ii < 1000; ii++)
+        {
+            table.addRow(String.valueOf(ii), "g" + (ii % 7));
+        }
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try
+        {
+            TableParallelProcessor parallel = table.parallel()
+                                                   .withForkJoinPool(forkJoinPool)
+                                                   .withPartitionSize(10);
+
+            assertEquals(table.as()
+                              .filteredRows(row -> row.getInt(0) % 3 == 0)
+                              .toString(),
+                         parallel.filteredRows(row -> row.getInt(0) % 3 == 0)
+                                 .toString());
+            assertEquals(table.as()
+                              .sortedBy(row -> row.getValue(1), SortOrder.DESCENDING)
+                              .toString(),
+                         parallel.sortedBy(row -> row.getValue(1), SortOrder.DESCENDING)
+                                 .toString());
+            assertEquals(table.as()
+                              .group(row -> row.getValue(1), row -> row.getValue(0)),
+                         parallel.group(row -> row.getValue(1), row -> row.getValue(0)));
+            assertEquals(table.as()
+                              .cellContentMappedTable(value -> value + "x")
+                              .toString(),
+                         parallel.cellContentMappedTable(value -> value + "x")
+                                 .toString());
+            assertEquals(table.stream()
+                              .map(Row::getFirstValue)
+                              .collect(Collectors.toList()),
+                         parallel.mappedRows(Row::getFirstValue));
+        }
+        finally
+        {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("a", "b")
+                           .addRow("1", "x")
+                           .addRow("2", "x", "wide");
+
+        ImmutableTable snapshot = table.snapshot();
+        assertSame(snapshot, table.snapshot());
+        assertEquals(table.toString(), snapshot.toString());
+        assertEquals("wide", snapshot.getValue(1, 2));
+        assertEquals(null, snapshot.getValue(0, 2));
+
+        table.addRow("3", "y");
+        assertEquals(2, snapshot.getRowSize());
+        assertEquals(3, table.snapshot()
+                             .getRowSize());
+        assertFalse(snapshot == table.snapshot());
+
+        table.getRow(0)
+             .getCell(0)
+             .setValue("one");
+        assertEquals("1", snapshot.getValue(0, 0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testFreeze() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("a", "b")
+                           .addRow("1", "x");
+
+        ImmutableTable frozen = table.freeze();
+        assertEquals(table.toString(), frozen.toString());
+        assertEquals("x", table.getValue(0, 1));
+
+        table.addRow("2");
+    }
+
+    @Test
+    public void testFreezeKeepsEquality() throws Exception
+    {
+        for (Table table : Arrays.asList(Table.newInstance(), Table.newColumnarInstance(), Table.newSparseInstance()))
+        {
+            Table other = Table.newInstance();
+            for (Table current : Arrays.asList(table, other))
+            {
+                current.addColumnTitles("a", "b")
+                       .addRow("1", "x")
+                       .addRow("2", "y");
+            }
+            int hashCode = table.hashCode();
+
+            ImmutableTable frozen = table.freeze();
+            assertEquals(other, table);
+            assertEquals(hashCode, table.hashCode());
+            assertEquals(other.snapshot(), frozen);
+            assertEquals(hashCode, frozen.hashCode());
+        }
+    }
+
 }
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.omnaest.utils.table.Table;
+import org.omnaest.utils.table.components.TableColumnIndex;
+import org.omnaest.utils.table.domain.Column;
+import org.omnaest.utils.table.domain.ColumnType;
+import org.omnaest.utils.table.domain.Row;
+import org.omnaest.utils.table.domain.ValueAccessor;
+
+public class ColumnarTableTest
+{
+    @Test
+    public void testAddRow() throws Exception
+    {
+        Table table = Table.newColumnarInstance()
+                           .addColumnTitles("column1", "column2", "column3")
+                           .addRow("1.0", "2.0", "3.0")
+                           .addRow("4.0", "5.0");
+
+        assertEquals("1.0", table.getValue(0, 0));
+        assertEquals("5.0", table.getValue(1, 1));
+        assertEquals(Arrays.asList("1.0", "2.0", "3.0"), table.getRow(0)
+                                                              .asList());
+        assertEquals(Arrays.asList("4.0", "5.0", null), table.getRow(1)
+                                                             .asList());
+    }
+
+    @Test
+    public void testGetColumnValues() throws Exception
+    {
+        Table table = Table.newColumnarInstance()
+                           .addColumnTitles("column1", "column2", "column3");
+        for (int ii = 0; ii < 1000; ii++)
+        {
+            table.addRow("a" + ii, "b" + ii);
+        }
+
+        Column column = table.getColumn("column2")
+                             .get();
+        assertEquals(1000, column.getValues()
+                                 .size());
+        assertEquals("b999", column.getValues()
+                                   .get(999));
+        assertTrue(column.containsValue("b500"));
+        assertFalse(column.containsValue("a500"));
+        assertEquals(Arrays.asList(null, null), table.getColumn("column3")
+                                                     .get()
+                                                     .getValues()
+                                                     .subList(0, 2));
+    }
+
+    @Test
+    public void testEquals() throws Exception
+    {
+        assertEquals(Table.newColumnarInstance()
+                          .addColumnTitles("column1", "column2")
+                          .addRow("a1", "b1")
+                          .addRow("a2", "b2"),
+                     Table.newColumnarInstance()
+                          .addColumnTitles("column1", "column2")
+                          .addRow("a1", "b1")
+                          .addRow("a2", "b2"));
+    }
+
+    @Test
+    public void testSerializeAndDeserialize() throws Exception
+    {
+        Table table = Table.newColumnarInstance()
+                           .addColumnTitles("column1", "column2")
+                           .addRow("0.0", "0.1")
+                           .addRow("1.0", "1.1");
+        String csv = table.serialize()
+                          .asCsv()
+                          .get();
+        assertEquals(table, Table.newColumnarInstance()
+                                 .deserialize()
+                                 .fromCsv(csv));
+    }
+
+    @Test
+    public void testDictionaryEncodedColumns() throws Exception
+    {
+        ColumnarTable table = new ColumnarTable();
+        table.addColumnTitles("status", "id");
+        for (int ii = 0; ii < 5000; ii++)
+        {
+            table.addRow(ii % 3 == 0 ? "open" : "closed", "id" + ii);
+        }
+
+        assertTrue(table.getDictionaryEncodedColumn(0)
+                        .isPresent());
+        assertEquals(3, table.getDictionaryEncodedColumn(0)
+                             .get()
+                             .getDictionarySize());
+        assertFalse(table.getDictionaryEncodedColumn(1)
+                         .isPresent());
+        assertEquals("open", table.getValue(3, 0));
+        assertEquals("id4999", table.getValue(4999, 1));
+
+        TableColumnIndex index = table.as()
+                                      .indexOfColumn("status");
+        assertEquals(1667, index.getRowsByValue("open")
+                                .count());
+        assertEquals(Arrays.asList(1, 2, 4), index.getRowsByValue("closed")
+                                                  .limit(3)
+                                                  .map(row -> row.getRowIndex())
+                                                  .collect(Collectors.toList()));
+        assertFalse(index.containsValue("unknown"));
+        assertFalse(index.containsValue(null));
+
+        Map<String, List<String>> groupedMap = table.as()
+                                                    .groupedMap();
+        assertEquals(2, groupedMap.size());
+        assertEquals("id3", groupedMap.get("open")
+                                      .get(1));
+    }
+
+    @Test
+    public void testUniqueRows()
+    {
+        assertEquals(Table.newInstance()
+                          .addRow("a", "b")
+                          .addRow("c", "d")
+                          .addRow("a", "c"),
+                     Table.newColumnarInstance()
+                          .addRow("a", "b")
+                          .addRow("c", "d")
+                          .addRow("a", "b")
+                          .addRow("a", "c")
+                          .as()
+                          .tableWithUniqueRows());
+    }
+
+    @Test
+    public void testTypedColumns() throws Exception
+    {
+        Table table = Table.newColumnarInstance()
+                           .addColumnTitle("name")
+                           .addColumnTitle("age", ColumnType.INT)
+                           .addColumnTitle("score", ColumnType.DOUBLE)
+                           .addColumnTitle("active", ColumnType.BOOLEAN)
+                           .addColumnTitle("amount", ColumnType.LONG)
+                           .addRow("Gunther", "40", "1.5", "true", "10000000000")
+                           .addRow("Paul", "", "2.0", "false", null);
+
+        Row row = table.getRow(0);
+        assertEquals(40, row.getInt("age"));
+        assertEquals(1.5, row.getDouble("score"), 0.001);
+        assertTrue(row.getBoolean("active"));
+        assertEquals(10000000000L, row.getLong("amount"));
+        assertEquals(0, row.getInt(2));
+        assertEquals(0, row.getInt("amount"));
+        assertEquals("40", row.getValue("age"));
+        assertEquals(40L, row.getOptionalValueAs("age")
+                             .map(ValueAccessor::longValue)
+                             .get()
+                             .longValue());
+
+        Row secondRow = table.getRow(1);
+        assertEquals(0, secondRow.getInt("age"));
+        assertEquals(null, secondRow.getValue("age"));
+        assertFalse(secondRow.getOptionalValueAs("age")
+                             .isPresent());
+        assertFalse(secondRow.getBoolean("active"));
+        assertEquals(0L, secondRow.getLong("amount"));
+        assertEquals(2, secondRow.getInt("score"));
+
+        table.addRow("Maria", "unknown", "3.0");
+        assertEquals("unknown", table.getValue(2, 1));
+        assertEquals("40", table.getValue(0, 1));
+        assertEquals(40, table.getRow(0)
+                              .getInt("age"));
+    }
+
+    @Test
+    public void testSnapshotKeepsColumnTypes() throws Exception
+    {
+        Table table = Table.newColumnarInstance()
+                           .addColumnTitle("status")
+                           .addColumnTitle("age", ColumnType.INT);
+        for (int ii = 0; ii < 1000; ii++)
+        {
+            table.addRow(ii % 2 == 0 ? "open" : "closed", "" + ii);
+        }
+
+        ArrayTable snapshot = ((ReadOnlyTable) table.snapshot()).getTable();
+        assertTrue(snapshot.getDictionaryEncodedColumn(0)
+                           .isPresent());
+        assertEquals(40, snapshot.getRow(40)
+                                 .getInt("age"));
+
+        table.getRow(40)
+             .getCell(1)
+             .setValue("41");
+        table.getRow(1)
+             .getCell(0)
+             .setValue("unknown");
+        table.addRow("open", "1000");
+        assertEquals(40, snapshot.getRow(40)
+                                 .getInt("age"));
+        assertEquals("closed", snapshot.getValue(1, 0));
+        assertEquals(1000, snapshot.getRowSize());
+        assertEquals(41, table.getRow(40)
+                              .getInt("age"));
+        assertEquals("unknown", table.getValue(1, 0));
+    }
+
+    @Test
+    public void testDeclaredColumnTypeSurvivesCompactAndSnapshot() throws Exception
+    {
+        Table table = Table.newColumnarInstance()
+                           .addColumnTitle("name")
+                           .addColumnTitle("age", ColumnType.INT)
+                           .addRow("Gunther");
+
+        table.compact();
+        table.snapshot();
+        table.addRow("Paul", "007");
+        assertEquals("7", table.getValue(1, 1));
+        assertEquals(7, table.getRow(1)
+                             .getInt("age"));
+    }
+
+    @Test
+    public void testCompact() throws Exception
+    {
+        ArrayTable table = (ArrayTable) Table.newColumnarInstance()
+                                             .addColumnTitles("group", "code", "id");
+        Table expectedTable = Table.newInstance()
+                                   .addColumnTitles("group", "code", "id");
+        for (int ii = 0; ii < 10000; ii++)
+        {
+            String code = ii % 7 == 0 ? null : "code" + (ii % 37);
+            table.addRow("group" + (ii / 1000), code, "id" + ii);
+            expectedTable.addRow("group" + (ii / 1000), code, "id" + ii);
+        }
+
+        table.compact();
+        assertTrue(table.getDictionaryEncodedColumn(0)
+                        .get() instanceof RunLengthColumnVector);
+        assertTrue(table.getDictionaryEncodedColumn(1)
+                        .get() instanceof BitPackedColumnVector);
+        assertFalse(table.getDictionaryEncodedColumn(2)
+                         .isPresent());
+        assertEquals(expectedTable.toString(), table.toString());
+        assertEquals("group9", table.getValue(9999, 0));
+        assertEquals("code12", table.getValue(1011, 1));
+        assertEquals(null, table.getValue(1008, 1));
+        assertEquals(expectedTable.getColumn("code")
+                                  .get()
+                                  .getValues(),
+                     table.getColumn("code")
+                          .get()
+                          .getValues());
+
+        table.getRow(5)
+             .getCell(0)
+             .setValue("group0");
+        table.getRow(5)
+             .getCell(1)
+             .setValue("new code");
+        assertTrue(table.getDictionaryEncodedColumn(0)
+                        .get() instanceof RunLengthColumnVector);
+        assertEquals("new code", table.getValue(5, 1));
+        assertEquals("code6", table.getValue(6, 1));
+        assertEquals(10000, table.getColumn("code")
+                                 .get()
+                                 .getValues()
+                                 .size());
+    }
+}
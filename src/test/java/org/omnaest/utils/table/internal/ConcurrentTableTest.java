@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.omnaest.utils.table.Table;
+import org.omnaest.utils.table.domain.Row;
+
+public class ConcurrentTableTest
+{
+    @Test
+    public void testConcurrentAddRow() throws Exception
+    {
+        Table table = Table.newConcurrentInstance()
+                           .addColumnTitles("producer", "value");
+
+        int numberOfProducers = 8;
+        int numberOfRowsPerProducer = 5000;
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfProducers);
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int producer = 0; producer < numberOfProducers; producer++)
+            {
+                String producerId = String.valueOf(producer);
+                futures.add(executorService.submit(() ->
+                {
+                    for (int ii = 0; ii < numberOfRowsPerProducer; ii++)
+                    {
+                        table.addRow(producerId, String.valueOf(ii));
+                        table.getRowSize();
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+
+        assertEquals(numberOfProducers * numberOfRowsPerProducer, table.getRowSize());
+        Set<String> values = new HashSet<>();
+        for (Row row : table)
+        {
+            values.add(row.getValue(0) + ":" + row.getValue(1));
+        }
+        assertEquals(numberOfProducers * numberOfRowsPerProducer, values.size());
+    }
+
+    @Test
+    public void testWideningRows() throws Exception
+    {
+        Table table = Table.newConcurrentInstance()
+                           .addRow("a")
+                           .addRow("b", "c", "d");
+        table.getRow(0)
+             .getCell(4)
+             .setValue("e");
+
+        assertEquals(5, table.getEffectiveColumns()
+                             .size());
+        assertEquals("[a, null, null, null, e]", table.getRow(0)
+                                                      .asList()
+                                                      .toString());
+        assertEquals("[b, c, d, null, null]", table.getRow(1)
+                                                   .asList()
+                                                   .toString());
+    }
+
+    @Test
+    public void testConcurrentWideningRows() throws Exception
+    {
+        int numberOfWriters = 8;
+        int numberOfRows = 4;
+        int numberOfColumns = 256;
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfWriters);
+        try
+        {
+            for (int repetition = 0; repetition < 200; repetition++)
+            {
+                ConcurrentTableData data = new ConcurrentTableData();
+                CyclicBarrier barrier = new CyclicBarrier(numberOfWriters);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int writer = 0; writer < numberOfWriters; writer++)
+                {
+                    int firstColumnIndex = writer;
+                    futures.add(executorService.submit(() ->
+                    {
+                        barrier.await();
+                        for (int columnIndex = firstColumnIndex; columnIndex < numberOfColumns; columnIndex += numberOfWriters)
+                        {
+                            for (int rowIndex = 0; rowIndex < numberOfRows; rowIndex++)
+                            {
+                                data.set(rowIndex, columnIndex, rowIndex + ":" + columnIndex);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures)
+                {
+                    future.get();
+                }
+
+                for (int rowIndex = 0; rowIndex < numberOfRows; rowIndex++)
+                {
+                    for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++)
+                    {
+                        assertEquals(rowIndex + ":" + columnIndex, data.get(rowIndex, columnIndex));
+                    }
+                }
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Test;
+
+public class CsvTokenizerTest
+{
+    @Test
+    public void testParityWithCommonsCsv() throws Exception
+    {
+        List<String> csvs = Arrays.asList("a;b\n1;2\n", "a;b\r\n1;2\r\n", "a;b\n1;2", "a;b\n1;\"2\n3\"\n4;5", "a;b\n\"1\r\n2\";3\r\n",
+                                          "a;b\n\"x\"\"y\";\"\"\"\"\n", "a;b\n\"\";\n", "a;b\n\n1;2\n\n\n3;4\n", "a;b\r\n\r\n1;2\r\n", "\n\na;b\n1;2",
+                                          "a;b\n1;2;3;4\n5\n", "a;b\n;\n;;\n", "a;b\n1;\"2\"", "a;b\n1;\"\n\"", "a;b\r1;2\r", "a;b\n x ; y \n",
+                                          "a;b\n1;2\n\n", "", "\n", ";", "\"\"");
+        for (CSVFormat csvFormat : Arrays.asList(TableSerializerImpl.DEFAULT_CSV_FORMAT, CSVFormat.EXCEL, CSVFormat.DEFAULT, CSVFormat.RFC4180))
+        {
+            for (String csv : csvs)
+            {
+                assertParity(csvFormat, csv.replace(';', csvFormat.getDelimiterString()
+                                                                  .charAt(0)));
+            }
+        }
+    }
+
+    @Test
+    public void testParityWithCommonsCsvForRandomInput() throws Exception
+    {
+        Random random = new Random(42);
+        char[] characters = { 'a', 'b', ';', ';', '"', '\n', '\r', ' ' };
+        for (int ii = 0; ii < 5000; ii++)
+        {
+            StringBuilder csv = new StringBuilder();
+            int length = random.nextInt(30);
+            for (int jj = 0; jj < length; jj++)
+            {
+                csv.append(characters[random.nextInt(characters.length)]);
+            }
+
+            List<String[]> expectedRecords;
+            try
+            {
+                expectedRecords = parseWithCommonsCsv(TableSerializerImpl.DEFAULT_CSV_FORMAT, csv.toString());
+            }
+            catch (IOException | RuntimeException e)
+            {
+                // malformed quotes are rejected by commons csv
+                continue;
+            }
+            assertRecords(expectedRecords, TableSerializerImpl.DEFAULT_CSV_FORMAT, csv.toString());
+        }
+    }
+
+    @Test
+    public void testSelection() throws Exception
+    {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader("a;\"b\n\";c\n1;2;3"), TableSerializerImpl.DEFAULT_CSV_FORMAT))
+        {
+            assertArrayEquals(new String[] { null, "b\n", null }, tokenizer.next(new boolean[] { false, true }));
+            assertEquals(3, tokenizer.next(null).length);
+        }
+    }
+
+    private static void assertParity(CSVFormat csvFormat, String csv) throws IOException
+    {
+        assertRecords(parseWithCommonsCsv(csvFormat, csv), csvFormat, csv);
+    }
+
+    private static void assertRecords(List<String[]> expectedRecords, CSVFormat csvFormat, String csv) throws IOException
+    {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(csv), csvFormat))
+        {
+            for (String[] expectedRecord : expectedRecords)
+            {
+                assertArrayEquals(csv, expectedRecord, tokenizer.next(null));
+            }
+            assertNull(csv, tokenizer.next(null));
+        }
+    }
+
+    private static List<String[]> parseWithCommonsCsv(CSVFormat csvFormat, String csv) throws IOException
+    {
+        List<String[]> result = new ArrayList<>();
+        try (CSVParser parser = csvFormat.parse(new StringReader(csv)))
+        {
+            for (CSVRecord record : parser)
+            {
+                result.add(record.values());
+            }
+        }
+        return result;
+    }
+}
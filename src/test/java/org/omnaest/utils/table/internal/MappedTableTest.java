@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.omnaest.utils.table.ImmutableTable;
+import org.omnaest.utils.table.Table;
+
+public class MappedTableTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndOpen() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("column1", "column2", "column3")
+                           .addRow("1.0", "äöü€😀", "")
+                           .addRow("4.0", null, "6.0", "7.0");
+
+        File file = this.temporaryFolder.newFile();
+        table.serialize()
+             .asIndexedBinary()
+             .writeInto(file);
+
+        ImmutableTable mappedTable = ImmutableTable.newMappedInstance(file);
+        assertEquals(2, mappedTable.getRowSize());
+        assertEquals(Arrays.asList("column1", "column2", "column3"), mappedTable.getColumnTitles());
+        assertEquals("äöü€😀", mappedTable.getValue(0, 1));
+        assertEquals("", mappedTable.getValue(0, 2));
+        assertEquals(Arrays.asList("4.0", null, "6.0", "7.0"), mappedTable.getRow(1)
+                                                                          .asList());
+        assertEquals(Arrays.asList("äöü€😀", null), mappedTable.getColumn("column2")
+                                                                         .get()
+                                                                         .getValues());
+        assertEquals(4, mappedTable.getEffectiveColumns()
+                                   .size());
+        assertEquals(table.toString(), mappedTable.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenInvalidFile() throws Exception
+    {
+        ImmutableTable.newMappedInstance(this.temporaryFolder.newFile());
+    }
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.omnaest.utils.table.CloseableTable;
+import org.omnaest.utils.table.ImmutableTable;
+import org.omnaest.utils.table.Table;
+
+public class OffHeapTableTest
+{
+    @Test
+    public void testAddRow() throws Exception
+    {
+        try (CloseableTable table = Table.newOffHeapInstance())
+        {
+            table.addColumnTitles("column1", "column2", "column3")
+                 .addRow("1.0", "äöü€", "")
+                 .addRow("4.0", null, "6.0");
+
+            assertEquals("äöü€", table.getValue(0, 1));
+            assertEquals("", table.getValue(0, 2));
+            assertEquals(Arrays.asList("4.0", null, "6.0"), table.getRow(1)
+                                                                 .asList());
+            assertEquals(Arrays.asList("äöü€", null), table.getColumn("column2")
+                                                           .get()
+                                                           .getValues());
+
+            table.getRow(0)
+                 .getCell(1)
+                 .setValue(null);
+            table.getRow(1)
+                 .getCell(1)
+                 .setValue("5.0");
+            assertEquals(Arrays.asList(null, "5.0"), table.getColumn("column2")
+                                                          .get()
+                                                          .getValues());
+        }
+    }
+
+    @Test
+    public void testLargeValues() throws Exception
+    {
+        try (CloseableTable table = Table.newOffHeapInstance())
+        {
+            String largeValue = StringUtils.repeat("a", 3 * 1024 * 1024);
+            for (int ii = 0; ii < 1000; ii++)
+            {
+                table.addRow("" + ii, ii == 500 ? largeValue : "value" + ii);
+            }
+
+            assertEquals(largeValue, table.getValue(500, 1));
+            assertEquals("value999", table.getValue(999, 1));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClose() throws Exception
+    {
+        CloseableTable table = Table.newOffHeapInstance();
+        table.addRow("a", "b");
+        table.close();
+        table.getValue(0, 0);
+    }
+
+    @Test
+    public void testCloseAfterSnapshot() throws Exception
+    {
+        CloseableTable table = Table.newOffHeapInstance();
+        table.addRow("a", "b");
+        ImmutableTable snapshot = table.snapshot();
+        table.addRow("c", StringUtils.repeat("d", 2 * 1024 * 1024));
+        table.close();
+
+        assertEquals(Arrays.asList("a", "b"), snapshot.getRow(0)
+                                                     .asList());
+        assertEquals(1, snapshot.getRowSize());
+    }
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.omnaest.utils.table.Table;
+
+public class ParallelCsvReaderTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRead() throws Exception
+    {
+        Table table = Table.newInstance()
+                           .addColumnTitles("id", "text");
+        for (int ii = 0; ii < 200; ii++)
+        {
+            table.addRow(String.valueOf(ii), ii % 3 == 0 ? "quoted \"" + ii + "\"\nwith;line break" : "äöü" + ii);
+        }
+
+        File file = this.temporaryFolder.newFile();
+        Files.write(file.toPath(), table.serialize()
+                                        .asCsv()
+                                        .get()
+                                        .getBytes(StandardCharsets.UTF_8));
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try
+        {
+            for (long chunkSize : new long[] { 1, 7, 64, 1 << 20 })
+            {
+                List<List<String>> headers = new ArrayList<>();
+                List<String[]> records;
+                ParallelCsvReader reader = new ParallelCsvReader(TableSerializerImpl.DEFAULT_CSV_FORMAT, forkJoinPool).withChunkSize(chunkSize);
+                try (Stream<String[]> stream = reader.read(file, header ->
+                {
+                    headers.add(header);
+                    return CsvProjection.of(header, null);
+                }, columnTitles -> record -> true))
+                {
+                    records = stream.toList();
+                }
+
+                assertEquals(Arrays.asList(Arrays.asList("id", "text")), headers);
+                assertEquals(200, records.size());
+                for (int ii = 0; ii < records.size(); ii++)
+                {
+                    assertEquals(table.getRow(ii)
+                                      .asList(),
+                                 Arrays.asList(records.get(ii)));
+                }
+            }
+
+            assertEquals(table, Table.newInstance()
+                                     .deserialize()
+                                     .asCsv(options -> options.withForkJoinPool(forkJoinPool))
+                                     .fromParallel(file));
+            assertEquals(Table.newInstance()
+                              .deserialize()
+                              .asCsv(options -> options.withFilter(row -> row.getInt("id") % 3 != 0)
+                                                       .withSkip(10)
+                                                       .withLimit(50))
+                              .from(file),
+                         Table.newInstance()
+                              .deserialize()
+                              .asCsv(options -> options.withForkJoinPool(forkJoinPool)
+                                                       .withFilter(row -> row.getInt("id") % 3 != 0)
+                                                       .withSkip(10)
+                                                       .withLimit(50))
+                              .fromParallel(file));
+        }
+        finally
+        {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testReadWithCarriageReturnsAndLiteralQuotes() throws Exception
+    {
+        StringBuilder csv = new StringBuilder("id;text\r");
+        for (int ii = 0; ii < 100; ii++)
+        {
+            String lineBreak = ii % 2 == 0 ? "\r" : "\r\n";
+            if (ii % 10 == 3)
+            {
+                csv.append(ii + ";literal\"quote" + lineBreak);
+            }
+            else if (ii % 10 == 7)
+            {
+                csv.append(ii + ";\"quoted\rvalue\"" + lineBreak);
+            }
+            else
+            {
+                csv.append(ii + ";value" + ii + lineBreak);
+            }
+        }
+
+        File file = this.temporaryFolder.newFile();
+        Files.write(file.toPath(), csv.toString()
+                                      .getBytes(StandardCharsets.UTF_8));
+        Table expected = Table.newInstance()
+                              .deserialize()
+                              .asCsv()
+                              .from(file);
+        assertEquals(100, expected.getRowSize());
+        assertEquals("literal\"quote", expected.getRow(3)
+                                               .getValue("text"));
+        assertEquals("quoted\rvalue", expected.getRow(7)
+                                             .getValue("text"));
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try
+        {
+            for (long chunkSize : new long[] { 1, 7, 64, 1 << 20 })
+            {
+                List<String[]> records;
+                ParallelCsvReader reader = new ParallelCsvReader(TableSerializerImpl.DEFAULT_CSV_FORMAT, forkJoinPool).withChunkSize(chunkSize);
+                try (Stream<String[]> stream = reader.read(file, header -> CsvProjection.of(header, null), columnTitles -> record -> true))
+                {
+                    records = stream.toList();
+                }
+
+                assertEquals(expected.getRowSize(), records.size());
+                for (int ii = 0; ii < records.size(); ii++)
+                {
+                    assertEquals(expected.getRow(ii)
+                                         .asList(),
+                                 Arrays.asList(records.get(ii)));
+                }
+            }
+
+            assertEquals(expected, Table.newInstance()
+                                        .deserialize()
+                                        .asCsv(options -> options.withForkJoinPool(forkJoinPool))
+                                        .fromParallel(file));
+        }
+        finally
+        {
+            forkJoinPool.shutdown();
+        }
+    }
+}
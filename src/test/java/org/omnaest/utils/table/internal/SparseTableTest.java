@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.omnaest.utils.table.Table;
+
+public class SparseTableTest
+{
+    @Test
+    public void testSetValuesByColumnTitles() throws Exception
+    {
+        Table table = Table.newSparseInstance();
+        for (int ii = 0; ii < 100; ii++)
+        {
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put("id", "" + ii);
+            values.put("attribute" + ii, "value" + ii);
+            table.newRow()
+                 .setValuesByColumnTitles(values);
+        }
+
+        assertEquals(100, table.getRowSize());
+        assertEquals(101, table.getColumnTitles()
+                               .size());
+        assertEquals("value42", table.getValue(42, table.getColumnTitles()
+                                                        .indexOf("attribute42")));
+        assertEquals(null, table.getValue(41, table.getColumnTitles()
+                                                       .indexOf("attribute42")));
+        assertEquals(Arrays.asList("0", "value0", null), table.getRow(0)
+                                                            .asList()
+                                                            .subList(0, 3));
+    }
+
+    @Test
+    public void testOverwriteAndRemoveValues() throws Exception
+    {
+        Table table = Table.newSparseInstance()
+                           .addRow("a", null, "c")
+                           .addRow(null, "e");
+
+        table.getRow(0)
+             .getCell(1)
+             .setValue("b");
+        table.getRow(0)
+             .getCell(0)
+             .setValue(null);
+        table.getRow(1)
+             .getCell(3)
+             .setValue("h");
+
+        assertEquals(Arrays.asList(null, "b", "c", null), table.getRow(0)
+                                                               .asList());
+        assertEquals(Arrays.asList(null, "e", null, "h"), table.getRow(1)
+                                                               .asList());
+        assertEquals(Arrays.asList("c", null), table.getEffectiveColumns()
+                                                             .get(2)
+                                                             .getValues());
+        assertEquals(Table.newInstance()
+                          .addRow(null, "b", "c")
+                          .addRow(null, "e", null, "h")
+                          .toString(),
+                     table.toString());
+    }
+}
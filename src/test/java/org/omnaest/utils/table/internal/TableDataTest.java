@@ -17,7 +17,10 @@ package org.omnaest.utils.table.internal;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Collections;
+
 import org.junit.Test;
+import org.omnaest.utils.table.domain.MemoryStats;
 
 public class TableDataTest
 {
@@ -50,4 +53,79 @@ public class TableDataTest
         }
     }
 
+    @Test
+    public void testWithDataAcrossChunks() throws Exception
+    {
+        int numberOfRows = TableData.CHUNK_SIZE * 3 + 1;
+        for (int ii = 0; ii < numberOfRows; ii++)
+        {
+            this.tableBody.set(ii, ii % 7, "" + ii);
+        }
+
+        assertEquals(numberOfRows, this.tableBody.getRowSize());
+        assertEquals(7, this.tableBody.getColumnSize());
+        for (int ii = 0; ii < numberOfRows; ii++)
+        {
+            assertEquals("" + ii, this.tableBody.get(ii, ii % 7));
+            assertEquals(null, this.tableBody.get(ii, (ii + 1) % 7));
+            assertEquals(7, this.tableBody.getRow(ii).length);
+        }
+        assertEquals("" + TableData.CHUNK_SIZE, this.tableBody.getColumn(TableData.CHUNK_SIZE % 7)[TableData.CHUNK_SIZE]);
+    }
+
+    @Test
+    public void testEqualsIndependentOfWriteOrder() throws Exception
+    {
+        TableData other = new TableData();
+        other.set(2, 1, "c");
+        other.set(0, 0, "a");
+
+        this.tableBody.set(0, 0, "a");
+        this.tableBody.set(1, 0, null);
+        this.tableBody.set(2, 1, "c");
+
+        assertEquals(other, this.tableBody);
+        assertEquals(other.hashCode(), this.tableBody.hashCode());
+    }
+
+    @Test
+    public void testEnsureCapacityAndTrimToSize() throws Exception
+    {
+        this.tableBody.ensureCapacity(10, 5);
+        this.tableBody.set(0, 0, "a");
+        this.tableBody.set(1, 1, "b");
+
+        MemoryUsage memoryUsage = new MemoryUsage();
+        this.tableBody.accumulateMemoryUsage(memoryUsage);
+        MemoryStats memoryStats = memoryUsage.toMemoryStats(Collections.emptyList());
+        assertEquals(4, memoryStats.getUsedCapacity());
+        assertEquals(10, memoryStats.getAllocatedCapacity());
+
+        this.tableBody.trimToSize();
+        memoryUsage = new MemoryUsage();
+        this.tableBody.accumulateMemoryUsage(memoryUsage);
+        memoryStats = memoryUsage.toMemoryStats(Collections.emptyList());
+        assertEquals(4, memoryStats.getUsedCapacity());
+        assertEquals(4, memoryStats.getAllocatedCapacity());
+        assertEquals("b", this.tableBody.get(1, 1));
+        assertEquals(null, this.tableBody.get(1, 0));
+    }
+
+    @Test
+    public void testMemoryUsageOfSharedValues() throws Exception
+    {
+        assertEquals(MemoryUsage.sizeOfObject(6 * MemoryUsage.REFERENCE + 4 * Integer.BYTES) + MemoryUsage.sizeOfArray(16, MemoryUsage.REFERENCE) + 32,
+                     MemoryUsage.sizeOfHashMap(1));
+        assertEquals(32 + MemoryUsage.sizeOfArray(32, MemoryUsage.REFERENCE) - MemoryUsage.sizeOfArray(16, MemoryUsage.REFERENCE),
+                     MemoryUsage.sizeOfHashMap(13) - MemoryUsage.sizeOfHashMap(12));
+
+        String sharedValue = "shared value";
+        MemoryUsage memoryUsage = new MemoryUsage();
+        for (int ii = 0; ii < 1000; ii++)
+        {
+            memoryUsage.addColumnValue(0, sharedValue);
+        }
+        assertEquals(MemoryUsage.sizeOfString(sharedValue), memoryUsage.toMemoryStats(Collections.emptyList())
+                                                                       .getRetainedBytes());
+    }
 }
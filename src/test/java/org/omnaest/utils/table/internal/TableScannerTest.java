@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.utils.table.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.omnaest.utils.table.Table;
+import org.omnaest.utils.table.domain.Row;
+
+public class TableScannerTest
+{
+    private static final String CSV = "id;name;score\n1;a;10\n2;b;20\n3;c;30\n";
+
+    @Test
+    public void testCsv() throws Exception
+    {
+        try (Stream<Row> rows = Table.scan()
+                                     .csv(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8))))
+        {
+            List<List<String>> result = rows.filter(row -> row.getInt(2) > 10)
+                                            .map(Row::asList)
+                                            .collect(Collectors.toList());
+            assertEquals(Arrays.asList(Arrays.asList("2", "b", "20"), Arrays.asList("3", "c", "30")), result);
+        }
+
+        try (Stream<Row> rows = Table.scan()
+                                     .csv(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8))))
+        {
+            assertEquals(60, rows.mapToInt(row -> row.getInt("score"))
+                                 .sum());
+        }
+    }
+
+    @Test
+    public void testCsvWithColumns() throws Exception
+    {
+        try (Stream<Row> rows = Table.scan()
+                                     .csv(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)), options -> options.withColumns("score", "id")))
+        {
+            assertEquals(Arrays.asList("10", "1"), rows.findFirst()
+                                                       .get()
+                                                       .asList());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRowIsOnlyValidUntilTheNextRow() throws Exception
+    {
+        try (Stream<Row> rows = Table.scan()
+                                     .csv(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8))))
+        {
+            List<Row> result = rows.collect(Collectors.toList());
+            result.get(0)
+                  .getValue(0);
+        }
+    }
+}